@@ -17,7 +17,14 @@
  */
 package de.joinout.criztovyl.tools;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 
@@ -105,4 +112,69 @@ public class CloneUtils {
 		target.getFile().setLastModified(src.getFile().lastModified());
 
 	}
+
+	/**
+	 * Copies a file to multiple targets and keep the same modification date/time.<br>
+	 * The source is only read once, each read block is written to all targets.
+	 * @param src
+	 *            the source path
+	 * @param targets
+	 *            the target paths
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static void cloneFile(Path src, Collection<Path> targets) throws IOException {
+
+		// Cancel if is no file
+		if (!src.getFile().isFile())
+			return;
+
+		// Nothing to stream if there is only one target
+		if (targets.size() == 1){
+			cloneFile(src, targets.iterator().next());
+			return;
+		}
+
+		final List<OutputStream> outs = new ArrayList<>();
+		final InputStream in = new FileInputStream(src.getFile());
+
+		try{
+
+			// Open all targets, create parent directories if needed
+			for (final Path target : targets){
+				target.getFile().getAbsoluteFile().getParentFile().mkdirs();
+				outs.add(new FileOutputStream(target.getFile()));
+			}
+
+			// Read block and write to all targets
+			final byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				for (final OutputStream out : outs)
+					out.write(buffer, 0, read);
+
+		} finally {
+
+			// Close all, keep first exception
+			IOException ex = null;
+			for (final OutputStream out : outs)
+				try {
+					out.close();
+				} catch (IOException e) {
+					if (ex == null)
+						ex = e;
+				}
+			in.close();
+
+			if (ex != null)
+				throw ex;
+		}
+
+		// Long is not accurate enough, so re-set lastModifed @ src file
+		src.getFile().setLastModified(src.getFile().lastModified());
+
+		// Copy lastModified to target files
+		for (final Path target : targets)
+			target.getFile().setLastModified(src.getFile().lastModified());
+
+	}
 }
@@ -0,0 +1,359 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.connector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import de.joinout.criztovyl.tools.json.creator.JSONCreator;
+
+/**
+ * A thread-safe variant of {@link Connector} for adding connectors and connections from multiple threads.<br>
+ * Known connectors are looked up without locking. A new connector is added under one of some locks chosen by its hash code,
+ * so only threads adding equal connectors wait for each other. Indices are assigned by an atomic counter.
+ * Connections are appended to a log, each thread reserves its slot by an atomic counter.<br>
+ * For reading, {@link #snapshot()} creates a {@link Connector} with all completely added connections, without blocking writers.
+ * The full query API ({@link Connector#getGraph()}, traversals, JSON) is available there.<br>
+ * Connectors are compared by equality and must not be <code>null</code>.
+ * @author criztovyl
+ *
+ * @param <C> the object class
+ */
+public class ConcurrentConnector<C> {
+
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final int STRIPES = 64;
+
+	private static final int MAX_YIELDS = 64;
+	private static final long PARK_NANOS = 100000;
+
+	private final ConcurrentMap<C, Integer> indices;
+	private final ConcurrentMap<Integer, Set<Integer>> idMap;
+	private final AtomicInteger nodeCount, edgeCount;
+	private final Object[] stripes;
+	private final Object growLock;
+	private final JSONCreator<C> creator;
+
+	private volatile AtomicReferenceArray<Object>[] nodeChunks;
+	private volatile AtomicLongArray[] edgeChunks;
+
+	/**
+	 * Creates a new instance
+	 * @param creator the creator.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ConcurrentConnector(JSONCreator<C> creator) {
+
+		indices = new ConcurrentHashMap<>();
+		idMap = new ConcurrentHashMap<>();
+		nodeCount = new AtomicInteger();
+		edgeCount = new AtomicInteger();
+		growLock = new Object();
+		this.creator = creator;
+
+		stripes = new Object[STRIPES];
+		for (int i = 0; i < STRIPES; i++)
+			stripes[i] = new Object();
+
+		nodeChunks = new AtomicReferenceArray[1];
+		edgeChunks = new AtomicLongArray[1];
+	}
+
+	/**
+	 * Adds a connector.
+	 * @param c the connector object.
+	 * @return the index the connector got.
+	 * @throws NullPointerException if the connector is <code>null</code>
+	 */
+	public int addConnector(C c) throws NullPointerException {
+
+		Integer index = indices.get(c);
+
+		if (index != null)
+			return index;
+
+		//Spread the hash code, as the stripes only use the low bits
+		int hash = c.hashCode();
+		hash ^= (hash >>> 16);
+
+		synchronized (stripes[hash & (STRIPES - 1)]) {
+
+			index = indices.get(c);
+
+			if (index == null) {
+
+				index = nodeCount.getAndIncrement();
+
+				//Store before publishing the index, so #getConnector works for every known index
+				getNodeChunk(index >>> CHUNK_BITS).set(index & CHUNK_MASK, c);
+				indices.put(c, index);
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * Adds a connector with an ID.<br>
+	 * Use {@link Connector#FOO_ID} for objects, that shouldn't identified.
+	 * @param c the connector
+	 * @param id the ID
+	 * @return the index the connector got.
+	 */
+	public int addConnector(C c, int id) {
+
+		int index = addConnector(c);
+
+		Set<Integer> set = idMap.get(id);
+
+		if (set == null) {
+
+			Set<Integer> created = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+			set = idMap.putIfAbsent(id, created);
+
+			if (set == null)
+				set = created;
+		}
+
+		set.add(index);
+
+		return index;
+	}
+
+	/**
+	 * Adds a one-way connection between two objects.
+	 * @param x a object
+	 * @param y another object
+	 */
+	public void addConnection(C x, C y) {
+
+		int index_x = addConnector(x);
+		int index_y = addConnector(y);
+
+		int edge = edgeCount.getAndIncrement();
+
+		//Stored shifted by one, so 0 marks a reserved but not yet written slot
+		getEdgeChunk(edge >>> CHUNK_BITS).set(edge & CHUNK_MASK, ((long) (index_x + 1) << 32) | (index_y + 1));
+	}
+
+	/**
+	 * Adds a one-way connection between two objects and defines the IDs.
+	 * @param x an object
+	 * @param xId an ID
+	 * @param y another object
+	 * @param yId another ID
+	 * @see Connector#addConnection(Object, int, Object, int)
+	 */
+	public void addConnection(C x, int xId, C y, int yId) {
+
+		addConnector(x, xId);
+		addConnector(y, yId);
+
+		addConnection(x, y);
+	}
+
+	/**
+	 * Adds a bidirectional connection between two objects.
+	 * @param x an object
+	 * @param y another object
+	 */
+	public void addBidirectionalConnection(C x, C y) {
+
+		addConnection(x, y);
+		addConnection(y, x);
+	}
+
+	/**
+	 * 
+	 * @param c the connector
+	 * @return the index of the connector or <code>-1</code> if it was not added.
+	 */
+	public int getIndex(C c) {
+
+		Integer index = indices.get(c);
+
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * 
+	 * @param index the index, see {@link #getIndex(Object)}
+	 * @return the connector object with the index
+	 */
+	@SuppressWarnings("unchecked")
+	public C getConnector(int index) {
+		return (C) getNodeChunk(index >>> CHUNK_BITS).get(index & CHUNK_MASK);
+	}
+
+	/**
+	 * 
+	 * @return the number of connectors, including ones currently added
+	 */
+	public int size() {
+		return nodeCount.get();
+	}
+
+	/**
+	 * Creates a {@link Connector} with the current state. Writers are not blocked.<br>
+	 * Contains all connections that were completely added before, connections added meanwhile may be included or not.
+	 * All connectors of included connections are included too. The {@link Connector} compares connectors by equality, as this does.<br>
+	 * If a connector index is reserved but the connector is not stored yet, waits until it is. This only covers the few statements between both in {@link #addConnector(Object)},
+	 * but if the adding thread is descheduled there, the wait backs off from yielding to parking, so it does not burn a core.
+	 * @return a {@link Connector}
+	 */
+	@SuppressWarnings("unchecked")
+	public Connector<C> snapshot() {
+
+		//Connections first: their connectors were added before, so they are below the node count read afterwards
+		int reserved = edgeCount.get();
+		int[] from = new int[reserved], to = new int[reserved];
+		int edges = 0;
+
+		AtomicLongArray[] edgeChunks = this.edgeChunks;
+
+		for (int i = 0; i < reserved; i++) {
+
+			AtomicLongArray chunk = (i >>> CHUNK_BITS) < edgeChunks.length ? edgeChunks[i >>> CHUNK_BITS] : null;
+
+			if (chunk == null) { //Chunk grown meanwhile, re-read
+				edgeChunks = this.edgeChunks;
+				chunk = (i >>> CHUNK_BITS) < edgeChunks.length ? edgeChunks[i >>> CHUNK_BITS] : null;
+			}
+
+			long edge = chunk == null ? 0 : chunk.get(i & CHUNK_MASK);
+
+			//Skip connections still being added
+			if (edge != 0) {
+				from[edges] = (int) (edge >>> 32) - 1;
+				to[edges] = (int) edge - 1;
+				edges++;
+			}
+		}
+
+		int nodes = nodeCount.get();
+		List<C> connectors = new ArrayList<>(nodes);
+
+		for (int i = 0; i < nodes; i++) {
+
+			C c = getConnector(i);
+
+			//Index reserved, but connector is stored in a moment
+			for (int spins = 0; c == null; spins++) {
+
+				if (spins < MAX_YIELDS)
+					Thread.yield();
+				else
+					LockSupport.parkNanos(PARK_NANOS);
+
+				c = getConnector(i);
+			}
+
+			connectors.add(c);
+		}
+
+		Map<Integer, BitSet> ids = new HashMap<>();
+
+		for (Map.Entry<Integer, Set<Integer>> entry : idMap.entrySet()) {
+
+			BitSet set = new BitSet(nodes);
+
+			for (Integer index : entry.getValue())
+				if (index < nodes)
+					set.set(index);
+
+			ids.put(entry.getKey(), set);
+		}
+
+		return new Connector<>(creator, connectors, Arrays.copyOf(from, edges), Arrays.copyOf(to, edges), edges, ids);
+	}
+
+	/**
+	 * Returns a chunk of the connector storage, creates it if needed.
+	 * @param chunk the chunk number
+	 * @return the chunk
+	 */
+	@SuppressWarnings("unchecked")
+	private AtomicReferenceArray<Object> getNodeChunk(int chunk) {
+
+		AtomicReferenceArray<Object>[] chunks = nodeChunks;
+
+		if (chunk < chunks.length && chunks[chunk] != null)
+			return chunks[chunk];
+
+		synchronized (growLock) {
+
+			chunks = nodeChunks;
+
+			if (chunk >= chunks.length)
+				chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunk + 1));
+
+			if (chunks[chunk] == null)
+				chunks[chunk] = new AtomicReferenceArray<>(CHUNK_SIZE);
+
+			//Publish
+			nodeChunks = chunks;
+
+			return chunks[chunk];
+		}
+	}
+
+	/**
+	 * Returns a chunk of the connection log, creates it if needed.
+	 * @param chunk the chunk number
+	 * @return the chunk
+	 */
+	private AtomicLongArray getEdgeChunk(int chunk) {
+
+		AtomicLongArray[] chunks = edgeChunks;
+
+		if (chunk < chunks.length && chunks[chunk] != null)
+			return chunks[chunk];
+
+		synchronized (growLock) {
+
+			chunks = edgeChunks;
+
+			if (chunk >= chunks.length)
+				chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunk + 1));
+
+			if (chunks[chunk] == null)
+				chunks[chunk] = new AtomicLongArray(CHUNK_SIZE);
+
+			//Publish
+			edgeChunks = chunks;
+
+			return chunks[chunk];
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package de.joinout.criztovyl.tools.connector;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -9,10 +14,16 @@ import org.json.JSONObject;
 
 import de.joinout.criztovyl.tools.json.JSONList;
 import de.joinout.criztovyl.tools.json.JSONMap;
+import de.joinout.criztovyl.tools.json.codec.BinaryCodec;
+import de.joinout.criztovyl.tools.json.codec.BinaryCodecs;
 import de.joinout.criztovyl.tools.json.creator.JSONCreator;
 import de.joinout.criztovyl.tools.json.creator.JSONCreators;
 /**
  * A class that can connect two objects one-way or bidirectional. The connectors also can have an ID.<br>
+ * Connectors are looked up by a hash map to their index, connections and IDs are stored by index, so adding and looking up is done in constant time.<br>
+ * A connector can be connected to multiple others, all connections are available as {@link ConnectorGraph} by {@link #getGraph()}.
+ * {@link #getConnected(Object)} returns the last one connected.<br>
+ * Besides JSON, a connector can be stored in a compact columnar binary form by {@link #writeBinary(DataOutput)}.<br>
  * @author christoph
  *
  * @param <C> the object class
@@ -22,15 +33,18 @@ public class Connector<C> {
 	private static String CONMAP_KEY = "map";
 	private static String CONNECTORLIST_KEY = "connectors";
 	private static String IDMAP_KEY = "ids";
+	private static String EDGES_KEY = "edges";
 	
 	/**
 	 * The ID for objects that shouldn't identified.
 	 */
 	public static int FOO_ID = 0;
 	
-	private Map<Integer, Integer> conMap;
-	private Map<Integer, List<Integer>> idMap;
+	private IntList conMap, edgeFrom, edgeTo;
+	private ConnectorGraph graph;
+	private Map<Integer, BitSet> idMap;
 	private List<C> connectors;
+	private Map<C, Integer> indices;
 	private JSONCreator<C> creator;
 	
 	/**
@@ -38,43 +52,218 @@ public class Connector<C> {
 	 * @param creator the creator.
 	 */
 	public Connector(JSONCreator<C> creator){
+		this(creator, false);
+	}
+	/**
+	 * Creates a new instance that compares connectors by equality or by identity.
+	 * @param creator the creator.
+	 * @param identity whether connectors should be compared by identity (<code>==</code>) instead of {@link Object#equals(Object)}
+	 */
+	public Connector(JSONCreator<C> creator, boolean identity){
 		
-		conMap = new HashMap<>();
+		conMap = new IntList();
+		edgeFrom = new IntList();
+		edgeTo = new IntList();
 		connectors = new ArrayList<>();
+		indices = createIndices(identity);
 		idMap = new HashMap<>();
 		this.creator = creator;
 		
 	}
+	/**
+	 * Creates a new instance upon already indexed data, as example a snapshot of a {@link ConcurrentConnector}.<br>
+	 * The arrays are used directly, not copied. Connectors are compared by equality, as by a {@link ConcurrentConnector}.
+	 * @param creator the {@link JSONCreator} for the connector object.
+	 * @param connectors the connector objects, by index
+	 * @param from the source indices of the connections
+	 * @param to the target indices of the connections
+	 * @param edges the number of connections to take from the arrays
+	 * @param idMap the ID as key and the indices of the connectors with the ID as value
+	 */
+	Connector(JSONCreator<C> creator, List<C> connectors, int[] from, int[] to, int edges, Map<Integer, BitSet> idMap){
+		
+		this.connectors = connectors;
+		this.idMap = idMap;
+		this.creator = creator;
+		
+		indices = new HashMap<>();
+		conMap = new IntList(connectors.size());
+		for(int i = 0; i < connectors.size(); i++){
+			indices.put(connectors.get(i), i);
+			conMap.add(-1);
+		}
+		
+		//Last connection wins, as by #addConnection(Object, Object)
+		for(int i = 0; i < edges; i++)
+			conMap.set(from[i], to[i]);
+		
+		edgeFrom = new IntList(from, edges);
+		edgeTo = new IntList(to, edges);
+	}
 	/**
 	 * Creates a new instance from an JSON object.
 	 * @param json the JSON object
 	 * @param creator the {@link JSONCreator} for the connector object.
 	 */
 	public Connector(JSONObject json, JSONCreator<C> creator){
+		this(json, creator, false);
+	}
+	/**
+	 * Creates a new instance from an JSON object that compares connectors by equality or by identity.
+	 * @param json the JSON object
+	 * @param creator the {@link JSONCreator} for the connector object.
+	 * @param identity whether connectors should be compared by identity (<code>==</code>) instead of {@link Object#equals(Object)}
+	 * @see #Connector(JSONCreator, boolean)
+	 */
+	public Connector(JSONObject json, JSONCreator<C> creator, boolean identity){
 		
-		if(json.has(CONMAP_KEY)){
-			conMap = new HashMap<>(new JSONMap<>(json.getJSONObject(CONMAP_KEY), JSONCreators.INTEGER, JSONCreators.INTEGER).getMap());	
+		if(json.has(CONNECTORLIST_KEY)){
+			connectors = new ArrayList<>(new JSONList<>(json.getJSONObject(CONNECTORLIST_KEY), creator).getList());
 		}
 		else{
-			conMap = new HashMap<>();
+			connectors = new ArrayList<>();
 		}
+		
+		//Index connectors, first occurrence wins
+		indices = createIndices(identity);
+		conMap = new IntList(connectors.size());
+		for(int i = 0; i < connectors.size(); i++){
+			if(!indices.containsKey(connectors.get(i)))
+				indices.put(connectors.get(i), i);
+			conMap.add(-1);
+		}
+		
+		if(json.has(CONMAP_KEY)){
+			Map<Integer, Integer> map = new JSONMap<>(json.getJSONObject(CONMAP_KEY), JSONCreators.INTEGER, JSONCreators.INTEGER).getMap();
+			for(Map.Entry<Integer, Integer> entry : map.entrySet())
+				conMap.set(entry.getKey(), entry.getValue());
+		}
+		
+		edgeFrom = new IntList();
+		edgeTo = new IntList();
+		if(json.has(EDGES_KEY)){
+			List<Integer> edges = new JSONList<>(json.getJSONObject(EDGES_KEY), JSONCreators.INTEGER).getList();
+			for(int i = 0; i + 1 < edges.size(); i += 2){
+				edgeFrom.add(edges.get(i));
+				edgeTo.add(edges.get(i + 1));
+			}
+		}
+		else //Stored without edges, only one connection per connector
+			for(int i = 0; i < conMap.size(); i++)
+				if(conMap.get(i) != -1){
+					edgeFrom.add(i);
+					edgeTo.add(conMap.get(i));
+				}
 			
+		idMap = new HashMap<>();
 		if(json.has(IDMAP_KEY)){		
-			idMap = new HashMap<>(new JSONMap<>(json.getJSONObject(IDMAP_KEY), JSONCreators.INTEGER, JSONCreators.INTEGER_LIST).getMap());
+			Map<Integer, List<Integer>> map = new JSONMap<>(json.getJSONObject(IDMAP_KEY), JSONCreators.INTEGER, JSONCreators.INTEGER_LIST).getMap();
+			for(Map.Entry<Integer, List<Integer>> entry : map.entrySet()){
+				BitSet set = new BitSet(connectors.size());
+				for(Integer index : entry.getValue())
+					set.set(index);
+				idMap.put(entry.getKey(), set);
+			}
 		}
-		else{
-			idMap = new HashMap<>();
+		
+		this.creator = creator;
+		
+	}
+	/**
+	 * Creates a new instance from binary data written by {@link #writeBinary(DataOutput)}.<br>
+	 * The data is read column by column directly into the index arrays.
+	 * @param in the {@link DataInput}
+	 * @param creator the {@link JSONCreator} for the connector object.
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for the {@link JSONCreator}
+	 */
+	public Connector(DataInput in, JSONCreator<C> creator) throws IOException, IllegalArgumentException{
+		this(in, creator, false);
+	}
+	/**
+	 * Creates a new instance from binary data written by {@link #writeBinary(DataOutput)} that compares connectors by equality or by identity.
+	 * @param in the {@link DataInput}
+	 * @param creator the {@link JSONCreator} for the connector object.
+	 * @param identity whether connectors should be compared by identity (<code>==</code>) instead of {@link Object#equals(Object)}
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for the {@link JSONCreator}
+	 * @see #Connector(JSONCreator, boolean)
+	 */
+	public Connector(DataInput in, JSONCreator<C> creator, boolean identity) throws IOException, IllegalArgumentException{
+		
+		this.creator = creator;
+		
+		BinaryCodec<C> codec = BinaryCodecs.getCodec(creator);
+		
+		//Node table
+		int nodes = BinaryCodecs.readLength(in);
+		connectors = new ArrayList<>(BinaryCodecs.initialCapacity(nodes));
+		indices = createIndices(identity);
+		conMap = new IntList(BinaryCodecs.initialCapacity(nodes));
+		
+		for(int i = 0; i < nodes; i++){
+			
+			C c = codec.read(in);
+			
+			connectors.add(c);
+			if(!indices.containsKey(c))
+				indices.put(c, i);
+			conMap.add(-1);
 		}
 		
-		if(json.has(CONNECTORLIST_KEY)){
-			connectors = new ArrayList<>(new JSONList<>(json.getJSONObject(CONNECTORLIST_KEY), creator).getList());
+		//Edge columns, sources as differences to the previous one
+		int edges = BinaryCodecs.readLength(in);
+		edgeFrom = new IntList(BinaryCodecs.initialCapacity(edges));
+		edgeTo = new IntList(BinaryCodecs.initialCapacity(edges));
+		
+		for(int i = 0, previous = 0; i < edges; i++)
+			edgeFrom.add(previous = checkIndex(previous + (int) BinaryCodecs.unZigZag(BinaryCodecs.readVarLong(in)), nodes));
+		
+		for(int i = 0; i < edges; i++){
+			int to = checkIndex(BinaryCodecs.readVarInt(in), nodes);
+			edgeTo.add(to);
+			conMap.set(edgeFrom.get(i), to);
 		}
-		else{
-			connectors = new ArrayList<>();
+		
+		//ID groups, indices ascending as differences
+		int groups = BinaryCodecs.readLength(in);
+		idMap = new HashMap<>();
+		
+		for(int i = 0; i < groups; i++){
+			
+			int id = (int) BinaryCodecs.unZigZag(BinaryCodecs.readVarLong(in));
+			int size = BinaryCodecs.readLength(in);
+			BitSet set = new BitSet(nodes);
+			
+			for(int j = 0, index = 0; j < size; j++){
+				index = checkIndex(index + BinaryCodecs.readVarInt(in), nodes);
+				set.set(index);
+			}
+			
+			idMap.put(id, set);
 		}
+	}
+	/**
+	 * Creates the map from connector objects to their index.
+	 * @param identity whether connectors should be compared by identity
+	 * @return a {@link Map}
+	 */
+	private static <C> Map<C, Integer> createIndices(boolean identity){
+		return identity ? new IdentityHashMap<C, Integer>() : new HashMap<C, Integer>();
+	}
+	/**
+	 * Validates a connector index read from binary data.
+	 * @param index the index
+	 * @param nodes the number of connectors
+	 * @return the index
+	 * @throws IOException If the index is not the index of a connector
+	 */
+	private static int checkIndex(int index, int nodes) throws IOException{
 		
-		this.creator = creator;
+		if(index < 0 || index >= nodes)
+			throw new IOException("Invalid connector index " + index + ", have " + nodes + " connectors.");
 		
+		return index;
 	}
 	/**
 	 * Adds a one-way connection between two objects.
@@ -88,7 +277,11 @@ public class Connector<C> {
 		index_x = addConnector(x);
 		index_y = addConnector(y);
 		
-		conMap.put(index_x, index_y);
+		conMap.set(index_x, index_y);
+		
+		edgeFrom.add(index_x);
+		edgeTo.add(index_y);
+		graph = null;
 
 	}
 	/**
@@ -214,14 +407,17 @@ public class Connector<C> {
 	 */
 	public int addConnector(C c){
 		
-		int index = -1;
+		Integer index = indices.get(c);
 		
-		if(connectors.contains(c))
-			index = connectors.indexOf(c);
-		else
+		if(index == null){
+			index = connectors.size();
+			indices.put(c, index);
 			connectors.add(c);
+			conMap.add(-1);
+			graph = null;
+		}
 		
-		return index == -1 ? connectors.size()-1 : index;
+		return index;
 		
 	}
 	/**
@@ -236,10 +432,9 @@ public class Connector<C> {
 		int index = addConnector(c);
 		
 		if(!idMap.containsKey(id))
-			idMap.put(id, new ArrayList<Integer>()); 
+			idMap.put(id, new BitSet()); 
 		
-		if(!idMap.get(id).contains(index))
-			idMap.get(id).add(index);
+		idMap.get(id).set(index);
 		
 		return index;
 	}
@@ -250,19 +445,179 @@ public class Connector<C> {
 	 */
 	public C getConnected(C c){
 		
-		int index = connectors.indexOf(c);
+		Integer index = indices.get(c);
 		
-		if(conMap.containsKey((Integer) index))
+		if(index != null && conMap.get(index) != -1)
 			return connectors.get(conMap.get(index));
 		
 		else
 			return null;
 		
 	}
+	/**
+	 * Locates all connected objects.
+	 * @param c the connector
+	 * @return a {@link List} of the connected objects, in the order they were connected. May be empty.
+	 * @see #getGraph()
+	 */
+	public List<C> getAllConnected(C c){
+		
+		List<C> list = new ArrayList<>();
+		Integer index = indices.get(c);
+		
+		if(index == null)
+			return list;
+		
+		ConnectorGraph graph = getGraph();
+		
+		for(int e = graph.getOffset(index); e < graph.getOffset(index + 1); e++)
+			list.add(connectors.get(graph.getTarget(e)));
+		
+		return list;
+	}
+	/**
+	 * Locates all connected objects with an ID.
+	 * @param c the connector
+	 * @param id the ID, use {@link #FOO_ID} for non-identified connectors
+	 * @return a {@link List} of the connected objects with the ID, in the order they were connected. May be empty.
+	 */
+	public List<C> getAllConnected(C c, int id){
+		
+		List<C> list = new ArrayList<>();
+		Integer index = indices.get(c);
+		BitSet set = idMap.get(id);
+		
+		if(index == null || set == null)
+			return list;
+		
+		ConnectorGraph graph = getGraph();
+		
+		for(int e = graph.getOffset(index); e < graph.getOffset(index + 1); e++)
+			if(set.get(graph.getTarget(e)))
+				list.add(connectors.get(graph.getTarget(e)));
+		
+		return list;
+	}
+	/**
+	 * Locates all objects reachable from a connector over one or more connections.
+	 * @param c the connector
+	 * @param depthFirst whether the connections should be followed depth-first instead of breadth-first
+	 * @return a {@link List} of the reached objects in visiting order, starting with the connector. Empty if the connector was not added.
+	 * @see ConnectorGraph#breadthFirst(int)
+	 * @see ConnectorGraph#depthFirst(int)
+	 */
+	public List<C> getReachable(C c, boolean depthFirst){
+		
+		Integer index = indices.get(c);
+		
+		if(index == null)
+			return new ArrayList<>();
+		
+		return getConnectors(depthFirst ? getGraph().depthFirst(index) : getGraph().breadthFirst(index));
+	}
+	/**
+	 * Pass-through to {@link #getReachable(Object, boolean)} with breadth-first order.
+	 * @param c the connector
+	 * @return a {@link List} of the reached objects
+	 */
+	public List<C> getReachable(C c){
+		return getReachable(c, false);
+	}
+	/**
+	 * Locates a path with the fewest connections between two connectors.
+	 * @param from the start connector
+	 * @param to the target connector
+	 * @return a {@link List} of the objects on the path, including both connectors, or <code>null</code> if there is no path.
+	 * @see ConnectorGraph#getShortestPath(int, int)
+	 */
+	public List<C> getPath(C from, C to){
+		
+		Integer index_from = indices.get(from), index_to = indices.get(to);
+		
+		if(index_from == null || index_to == null)
+			return null;
+		
+		int[] path = getGraph().getShortestPath(index_from, index_to);
+		
+		return path == null ? null : getConnectors(path);
+	}
+	/**
+	 * Groups the connectors by connected components, the direction of connections is ignored.
+	 * @return a {@link List} of components, each a {@link List} of connector objects.
+	 * @see ConnectorGraph#getComponents()
+	 */
+	public List<List<C>> getComponents(){
+		
+		int[] components = getGraph().getComponents();
+		List<List<C>> list = new ArrayList<>();
+		
+		for(int i = 0; i < components.length; i++){
+			
+			//Components are numbered in order of first appearance
+			if(components[i] == list.size())
+				list.add(new ArrayList<C>());
+			
+			list.get(components[i]).add(connectors.get(i));
+		}
+		
+		return list;
+	}
+	/**
+	 * Maps indices to connector objects.
+	 * @param indices the indices
+	 * @return a {@link List} of connector objects
+	 */
+	private List<C> getConnectors(int[] indices){
+		
+		List<C> list = new ArrayList<>(indices.length);
+		
+		for(int index : indices)
+			list.add(connectors.get(index));
+		
+		return list;
+	}
+	/**
+	 * Returns all connections as {@link ConnectorGraph}, the nodes are the connector indices (see {@link #getIndex(Object)}).<br>
+	 * The graph is built on first use and rebuilt after connectors or connections were added.
+	 * @return a {@link ConnectorGraph}
+	 */
+	public ConnectorGraph getGraph(){
+		
+		if(graph == null)
+			graph = ConnectorGraph.build(connectors.size(), edgeFrom.toArray(), edgeTo.toArray());
+		
+		return graph;
+	}
+	/**
+	 * 
+	 * @param c the connector
+	 * @return the index of the connector or <code>-1</code> if it was not added.
+	 */
+	public int getIndex(C c){
+		
+		Integer index = indices.get(c);
+		
+		return index == null ? -1 : index;
+	}
+	/**
+	 * 
+	 * @param index the index, see {@link #getIndex(Object)}
+	 * @return the connector object with the index
+	 */
+	public C getConnector(int index){
+		return connectors.get(index);
+	}
+	/**
+	 * 
+	 * @return the number of connectors
+	 */
+	public int size(){
+		return connectors.size();
+	}
 	@Override
 	public String toString(){
 		
-		return conMap.toString() + ":" + connectors.toString() + ":" + idMap.toString();
+		return getConnectionMap().toString() + ":" + connectors.toString() + ":" + getIDMap().toString();
 		
 	}
 	/**
@@ -273,17 +628,91 @@ public class Connector<C> {
 		
 		JSONObject json = new JSONObject();
 		
-		JSONMap<Integer, Integer> conMap_json = new JSONMap<>(conMap, JSONCreators.INTEGER, JSONCreators.INTEGER);
-		JSONMap<Integer, List<Integer>> idMap_json = new JSONMap<>(idMap, JSONCreators.INTEGER, JSONCreators.INTEGER_LIST);
+		JSONMap<Integer, Integer> conMap_json = new JSONMap<>(getConnectionMap(), JSONCreators.INTEGER, JSONCreators.INTEGER);
+		JSONMap<Integer, List<Integer>> idMap_json = new JSONMap<>(getIDMap(), JSONCreators.INTEGER, JSONCreators.INTEGER_LIST);
 		JSONList<C> connectors_json = new JSONList<>(connectors, creator);
 		
 		json.put(CONMAP_KEY, conMap_json.getJSON());
 		json.put(IDMAP_KEY, idMap_json.getJSON());
 		json.put(CONNECTORLIST_KEY, connectors_json.getJSON());
 		
+		//Edges as flat list of source and target index
+		List<Integer> edges = new ArrayList<>(edgeFrom.size() * 2);
+		for(int i = 0; i < edgeFrom.size(); i++){
+			edges.add(edgeFrom.get(i));
+			edges.add(edgeTo.get(i));
+		}
+		json.put(EDGES_KEY, new JSONList<>(edges, JSONCreators.INTEGER).getJSON());
+		
 		return json;
 		
 	}
+	/**
+	 * Writes this in a compact columnar binary form: the node table (all connector objects by their {@link BinaryCodec}),
+	 * the edge columns (all sources, then all targets, as variable length integers) and the ID groups (ID, size and ascending indices).
+	 * @param out the {@link DataOutput}
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for the {@link JSONCreator}
+	 * @see #Connector(DataInput, JSONCreator)
+	 */
+	public void writeBinary(DataOutput out) throws IOException, IllegalArgumentException{
+		
+		BinaryCodec<C> codec = BinaryCodecs.getCodec(creator);
+		
+		BinaryCodecs.writeVarInt(connectors.size(), out);
+		for(C c : connectors)
+			codec.write(c, out);
+		
+		BinaryCodecs.writeVarInt(edgeFrom.size(), out);
+		for(int i = 0, previous = 0; i < edgeFrom.size(); previous = edgeFrom.get(i), i++)
+			BinaryCodecs.writeVarInt((int) BinaryCodecs.zigZag(edgeFrom.get(i) - previous), out);
+		for(int i = 0; i < edgeTo.size(); i++)
+			BinaryCodecs.writeVarInt(edgeTo.get(i), out);
+		
+		BinaryCodecs.writeVarInt(idMap.size(), out);
+		for(Map.Entry<Integer, BitSet> entry : idMap.entrySet()){
+			
+			BinaryCodecs.writeVarInt((int) BinaryCodecs.zigZag(entry.getKey()), out);
+			BinaryCodecs.writeVarInt(entry.getValue().cardinality(), out);
+			
+			for(int i = entry.getValue().nextSetBit(0), previous = 0; i >= 0; previous = i, i = entry.getValue().nextSetBit(i + 1))
+				BinaryCodecs.writeVarInt(i - previous, out);
+		}
+	}
+	/**
+	 * Creates a map of the connections, the index of a connector as key and the index of the connected one as value.
+	 * @return a {@link Map}
+	 */
+	private Map<Integer, Integer> getConnectionMap(){
+		
+		Map<Integer, Integer> map = new HashMap<>();
+		
+		for(int i = 0; i < conMap.size(); i++)
+			if(conMap.get(i) != -1)
+				map.put(i, conMap.get(i));
+		
+		return map;
+	}
+	/**
+	 * Creates a map of the IDs, the ID as key and the indices of the connectors as value.
+	 * @return a {@link Map}
+	 */
+	private Map<Integer, List<Integer>> getIDMap(){
+		
+		Map<Integer, List<Integer>> map = new HashMap<>();
+		
+		for(Map.Entry<Integer, BitSet> entry : idMap.entrySet()){
+			
+			List<Integer> list = new ArrayList<>();
+			
+			for(int i = entry.getValue().nextSetBit(0); i >= 0; i = entry.getValue().nextSetBit(i + 1))
+				list.add(i);
+			
+			map.put(entry.getKey(), list);
+		}
+		
+		return map;
+	}
 	
 	/**
 	 * Locates all non-identified connectors. (All connectors with ID {@link #FOO_ID})
@@ -294,7 +723,8 @@ public class Connector<C> {
 	}
 	/**
 	 * Locates all connectors with the same ID.<br>
-	 * Use {@link #FOO_ID} to get all non-identified connectors.
+	 * Use {@link #FOO_ID} to get all non-identified connectors.<br>
+	 * The connectors are in index order, i.e. the order they were first added to this connector, not the order they got the ID.
 	 * @param ID the ID.
 	 * @return a {@link List} of connector objects. May be empty.
 	 */
@@ -305,7 +735,9 @@ public class Connector<C> {
 		if(!idMap.containsKey(ID))
 			return list;
 		
-		for(Integer i : idMap.get((Integer) ID))
+		BitSet set = idMap.get(ID);
+		
+		for(int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1))
 			list.add(connectors.get(i));
 		
 		return list;
@@ -0,0 +1,358 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.connector;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * An immutable directed graph in compressed sparse row form, used by {@link Connector} to store multiple connections per connector.<br>
+ * Nodes are the indices <code>0</code> to <code>{@link #getNodeCount()} - 1</code>. The targets of node <code>n</code> are stored
+ * from {@link #getOffset(int) getOffset(n)} (inclusive) to {@link #getOffset(int) getOffset(n + 1)} (exclusive), in the order the edges were given.<br>
+ * Neighbors can be iterated without boxing or allocating:
+ * <pre>
+ * for(int e = graph.getOffset(n); e &lt; graph.getOffset(n + 1); e++)
+ * 	visit(graph.getTarget(e));
+ * </pre>
+ * Parallel edges are kept.<br>
+ * The traversals use plain <code>int</code> arrays as queue or stack, sized by the node count, and a {@link BitSet} for visited nodes.
+ * @author criztovyl
+ *
+ */
+public class ConnectorGraph {
+
+	private final int[] offsets;
+	private final int[] targets;
+
+	/**
+	 * Creates a graph from already built arrays.
+	 * @param offsets the row offsets, <code>nodes + 1</code> values
+	 * @param targets the targets
+	 */
+	private ConnectorGraph(int[] offsets, int[] targets) {
+		this.offsets = offsets;
+		this.targets = targets;
+	}
+
+	/**
+	 * Builds a graph from an edge list in one pass, by counting the edges of each node first.
+	 * @param nodes the number of nodes
+	 * @param from the sources of the edges
+	 * @param to the targets of the edges
+	 * @param edges the number of edges to take from the arrays
+	 * @return a {@link ConnectorGraph}
+	 * @throws IllegalArgumentException if an edge references a node that is not in range
+	 */
+	public static ConnectorGraph build(int nodes, int[] from, int[] to, int edges) throws IllegalArgumentException {
+
+		final int[] offsets = new int[nodes + 1];
+
+		//Count edges per node, shifted by one
+		for (int i = 0; i < edges; i++) {
+
+			if (from[i] < 0 || from[i] >= nodes || to[i] < 0 || to[i] >= nodes)
+				throw new IllegalArgumentException("Edge " + from[i] + " -> " + to[i] + " out of range, " + nodes + " nodes.");
+
+			offsets[from[i] + 1]++;
+		}
+
+		//Sum up to offsets
+		for (int i = 0; i < nodes; i++)
+			offsets[i + 1] += offsets[i];
+
+		//Place targets, using a copy of the offsets as insert positions
+		final int[] targets = new int[edges];
+		final int[] position = Arrays.copyOf(offsets, nodes);
+
+		for (int i = 0; i < edges; i++)
+			targets[position[from[i]]++] = to[i];
+
+		return new ConnectorGraph(offsets, targets);
+	}
+
+	/**
+	 * Pass-through to {@link #build(int, int[], int[], int)} with all edges of the arrays.
+	 * @param nodes the number of nodes
+	 * @param from the sources of the edges
+	 * @param to the targets of the edges, same length as <code>from</code>
+	 * @return a {@link ConnectorGraph}
+	 * @throws IllegalArgumentException if the arrays have different lengths or an edge references a node that is not in range
+	 */
+	public static ConnectorGraph build(int nodes, int[] from, int[] to) throws IllegalArgumentException {
+
+		if (from.length != to.length)
+			throw new IllegalArgumentException("Edge arrays have different lengths: " + from.length + ", " + to.length);
+
+		return build(nodes, from, to, from.length);
+	}
+
+	/**
+	 * 
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * 
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	/**
+	 * The position of the first edge of a node. <code>getOffset(getNodeCount())</code> equals {@link #getEdgeCount()}.
+	 * @param node the node
+	 * @return the edge position
+	 */
+	public int getOffset(int node) {
+		return offsets[node];
+	}
+
+	/**
+	 * 
+	 * @param edge the edge position
+	 * @return the target of the edge
+	 */
+	public int getTarget(int edge) {
+		return targets[edge];
+	}
+
+	/**
+	 * 
+	 * @param node the node
+	 * @return the number of edges starting at the node
+	 */
+	public int getDegree(int node) {
+		return offsets[node + 1] - offsets[node];
+	}
+
+	/**
+	 * 
+	 * @param node the node
+	 * @return the targets of all edges starting at the node, as new array
+	 */
+	public int[] getNeighbors(int node) {
+		return Arrays.copyOfRange(targets, offsets[node], offsets[node + 1]);
+	}
+
+	/**
+	 * Checks if there is an edge between two nodes.
+	 * @param from the source node
+	 * @param to the target node
+	 * @return true if there is at least one edge, otherwise false
+	 */
+	public boolean isConnected(int from, int to) {
+
+		for (int e = offsets[from]; e < offsets[from + 1]; e++)
+			if (targets[e] == to)
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Visits all nodes reachable from a node in breadth-first order.
+	 * @param start the start node
+	 * @return the reached nodes in visiting order, starting with <code>start</code>
+	 */
+	public int[] breadthFirst(int start) {
+
+		final int[] queue = new int[getNodeCount()];
+		final BitSet visited = new BitSet(getNodeCount());
+		int head = 0, tail = 0;
+
+		queue[tail++] = start;
+		visited.set(start);
+
+		while (head < tail) {
+
+			final int node = queue[head++];
+
+			for (int e = offsets[node]; e < offsets[node + 1]; e++)
+				if (!visited.get(targets[e])) {
+					visited.set(targets[e]);
+					queue[tail++] = targets[e];
+				}
+		}
+
+		//The queue holds every visited node exactly once, in order
+		return Arrays.copyOf(queue, tail);
+	}
+
+	/**
+	 * Visits all nodes reachable from a node in depth-first (pre-)order.
+	 * @param start the start node
+	 * @return the reached nodes in visiting order, starting with <code>start</code>
+	 */
+	public int[] depthFirst(int start) {
+
+		//Stack of nodes and the position of their next edge to follow
+		final int[] stack = new int[getNodeCount()];
+		final int[] cursor = new int[getNodeCount()];
+		final int[] order = new int[getNodeCount()];
+		final BitSet visited = new BitSet(getNodeCount());
+		int top = 0, count = 0;
+
+		stack[top] = start;
+		cursor[top++] = offsets[start];
+		visited.set(start);
+		order[count++] = start;
+
+		while (top > 0) {
+
+			final int node = stack[top - 1];
+
+			if (cursor[top - 1] == offsets[node + 1]) { //All edges followed
+				top--;
+				continue;
+			}
+
+			final int target = targets[cursor[top - 1]++];
+
+			if (!visited.get(target)) {
+				visited.set(target);
+				order[count++] = target;
+				stack[top] = target;
+				cursor[top++] = offsets[target];
+			}
+		}
+
+		return Arrays.copyOf(order, count);
+	}
+
+	/**
+	 * Checks if a node can be reached from another, by a breadth-first search that stops at the target.
+	 * @param from the start node
+	 * @param to the target node
+	 * @return true if there is a path, otherwise false
+	 */
+	public boolean isReachable(int from, int to) {
+		return getShortestPath(from, to) != null;
+	}
+
+	/**
+	 * Locates a path with the fewest edges between two nodes, by a breadth-first search that stops at the target.
+	 * @param from the start node
+	 * @param to the target node
+	 * @return the nodes of the path, including <code>from</code> and <code>to</code>, or <code>null</code> if there is no path.
+	 */
+	public int[] getShortestPath(int from, int to) {
+
+		if (from == to)
+			return new int[] { from };
+
+		final int[] queue = new int[getNodeCount()];
+		final int[] parent = new int[getNodeCount()];
+		final BitSet visited = new BitSet(getNodeCount());
+		int head = 0, tail = 0;
+
+		queue[tail++] = from;
+		visited.set(from);
+
+		while (head < tail) {
+
+			final int node = queue[head++];
+
+			for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+
+				final int target = targets[e];
+
+				if (visited.get(target))
+					continue;
+
+				visited.set(target);
+				parent[target] = node;
+
+				if (target == to) {
+
+					//Count path length, then walk back from the target
+					int length = 1;
+					for (int n = to; n != from; n = parent[n])
+						length++;
+
+					final int[] path = new int[length];
+					for (int n = to, i = length - 1; i >= 0; n = parent[n], i--)
+						path[i] = n;
+
+					return path;
+				}
+
+				queue[tail++] = target;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Locates the connected components, edge directions are ignored.<br>
+	 * Uses a union-find over the edges, so no reverse graph is needed.
+	 * @return the component of each node, numbered from <code>0</code> in order of the lowest node of the component.
+	 */
+	public int[] getComponents() {
+
+		final int[] parent = new int[getNodeCount()];
+
+		for (int i = 0; i < parent.length; i++)
+			parent[i] = i;
+
+		for (int node = 0; node < getNodeCount(); node++)
+			for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+
+				final int a = find(parent, node), b = find(parent, targets[e]);
+
+				//Lower node becomes root, keeps numbering stable
+				if (a < b)
+					parent[b] = a;
+				else if (b < a)
+					parent[a] = b;
+			}
+
+		//Number roots in node order, roots always come before their members
+		final int[] components = new int[getNodeCount()];
+		int count = 0;
+
+		for (int node = 0; node < getNodeCount(); node++) {
+
+			final int root = find(parent, node);
+
+			components[node] = root == node ? count++ : components[root];
+		}
+
+		return components;
+	}
+
+	/**
+	 * Finds the root of a node in a union-find array, halving the path on the way.
+	 * @param parent the parent array
+	 * @param node the node
+	 * @return the root
+	 */
+	private static int find(int[] parent, int node) {
+
+		while (parent[node] != node) {
+			parent[node] = parent[parent[node]];
+			node = parent[node];
+		}
+
+		return node;
+	}
+}
@@ -0,0 +1,111 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.connector;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive <code>int</code>s, used by {@link Connector} to store indices without boxing them.
+ * @author criztovyl
+ *
+ */
+class IntList {
+
+	private int[] data;
+	private int size;
+
+	/**
+	 * Creates a new, empty list.
+	 */
+	IntList(){
+		this(16);
+	}
+	/**
+	 * Creates a new, empty list with the given initial capacity.
+	 * @param capacity the initial capacity
+	 */
+	IntList(int capacity){
+		data = new int[Math.max(capacity, 1)];
+	}
+	/**
+	 * Creates a new list holding the first values of an array. The array is used directly, not copied.
+	 * @param data the array
+	 * @param size the number of values
+	 */
+	IntList(int[] data, int size){
+		this.data = data.length == 0 ? new int[1] : data;
+		this.size = size;
+	}
+	/**
+	 * Appends a value.
+	 * @param value the value
+	 */
+	void add(int value){
+
+		if(size == data.length)
+			data = Arrays.copyOf(data, size * 2);
+
+		data[size++] = value;
+	}
+	/**
+	 * 
+	 * @param index the index
+	 * @return the value at the index
+	 */
+	int get(int index){
+
+		if(index >= size)
+			throw new IndexOutOfBoundsException(index + " >= " + size);
+
+		return data[index];
+	}
+	/**
+	 * Replaces a value.
+	 * @param index the index
+	 * @param value the new value
+	 */
+	void set(int index, int value){
+
+		if(index >= size)
+			throw new IndexOutOfBoundsException(index + " >= " + size);
+
+		data[index] = value;
+	}
+	/**
+	 * 
+	 * @return the number of values
+	 */
+	int size(){
+		return size;
+	}
+	/**
+	 * 
+	 * @return a copy of the values as array
+	 */
+	int[] toArray(){
+		return Arrays.copyOf(data, size);
+	}
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString(){
+		return Arrays.toString(toArray());
+	}
+}
@@ -0,0 +1,68 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.directory;
+
+import de.joinout.criztovyl.tools.file.Path;
+
+/**
+ * A class with some {@link ConflictPolicy}s inside.
+ * @author criztovyl
+ *
+ */
+public class ConflictPolicies {
+
+	/**
+	 * Keeps the newer file, a deleted file is older than an existing one. Equals the behaviour of {@link DirectorySync}.
+	 */
+	public static ConflictPolicy NEWER = new ConflictPolicy() {
+
+		public Resolution resolve(Path path, Path left, Path right) {
+			return left.getFile().lastModified() >= right.getFile().lastModified() ? Resolution.LEFT : Resolution.RIGHT;
+		}
+	};
+
+	/**
+	 * Always keeps the left file.
+	 */
+	public static ConflictPolicy LEFT = new ConflictPolicy() {
+
+		public Resolution resolve(Path path, Path left, Path right) {
+			return Resolution.LEFT;
+		}
+	};
+
+	/**
+	 * Always keeps the right file.
+	 */
+	public static ConflictPolicy RIGHT = new ConflictPolicy() {
+
+		public Resolution resolve(Path path, Path left, Path right) {
+			return Resolution.RIGHT;
+		}
+	};
+
+	/**
+	 * Leaves all conflicts untouched.
+	 */
+	public static ConflictPolicy SKIP = new ConflictPolicy() {
+
+		public Resolution resolve(Path path, Path left, Path right) {
+			return Resolution.SKIP;
+		}
+	};
+}
@@ -0,0 +1,56 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.directory;
+
+import de.joinout.criztovyl.tools.file.Path;
+
+/**
+ * Decides how a conflict of a {@link ThreeWayDirectorySync} is resolved. A conflict is a file that was changed in both directories since the last sync.<br>
+ * Some policies are already implemented as static fields in {@link ConflictPolicies}.
+ * @author criztovyl
+ *
+ */
+public interface ConflictPolicy {
+
+	/**
+	 * The possible resolutions of a conflict.
+	 */
+	public enum Resolution {
+		/**
+		 * The left file is kept and copied to the right directory. If the left file was deleted, the right file is deleted too.
+		 */
+		LEFT,
+		/**
+		 * The right file is kept and copied to the left directory. If the right file was deleted, the left file is deleted too.
+		 */
+		RIGHT,
+		/**
+		 * Nothing is done, both files stay as they are.
+		 */
+		SKIP
+	}
+
+	/**
+	 * Resolves a conflict.
+	 * @param path the relative {@link Path} of the conflicting file
+	 * @param left the left file, may not exist if it was deleted
+	 * @param right the right file, may not exist if it was deleted
+	 * @return a {@link Resolution}
+	 */
+	public Resolution resolve(Path path, Path left, Path right);
+}
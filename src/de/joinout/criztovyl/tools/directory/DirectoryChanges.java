@@ -44,6 +44,9 @@ public class DirectoryChanges {
 	private final FileList current, previous;
 	private Logger logger;
 	private HashSet<Path> del, changed, nevv;
+	private final Map<Path, Long> checksums;
+	private final Map<Path, String> modificationHashes;
+	private boolean fastModificationHash;
 
 	/**
 	 * Creates a new instance. <code>previous</code> and <code>current</code> list are set.
@@ -54,11 +57,33 @@ public class DirectoryChanges {
 	 *            the current list
 	 */
 	public DirectoryChanges(FileList current, FileList previous) {
+		this(current, previous, new HashMap<Path, Long>(), null);
+	}
+
+	/**
+	 * Creates a new instance. <code>previous</code> and <code>current</code> list are set and the checksums are cached in the given {@link Map}.<br>
+	 * The map can be shared between multiple instances, so files of a common directory are only checksummed once.
+	 * The same way the modification hashes of the current list can be created once by {@link FileList#getModificationHashes()}.
+	 * 
+	 * @param current
+	 *            the current list
+	 * @param previous
+	 *            the previous list
+	 * @param checksums
+	 *            the checksum cache, a {@link Map} with the real {@link Path} as key and the CRC32 checksum as value.
+	 * @param modificationHashes
+	 *            the modification hashes of the current list or <code>null</code> if they should be created when needed.
+	 */
+	public DirectoryChanges(FileList current, FileList previous, Map<Path, Long> checksums, Map<Path, String> modificationHashes) {
 
 		//Setup FileLists
 		this.current = new FileList(current);
 		this.previous = new FileList(previous);
 		
+		//Setup checksum cache and hashes
+		this.checksums = checksums;
+		this.modificationHashes = modificationHashes;
+		
 		//Remove symbolic links and their sub-directories from set
 		
 		this.current.remove(this.previous.getSymLinks(true), true, false);
@@ -139,6 +164,9 @@ public class DirectoryChanges {
 			
 			// Remove all which is in current set
 			del.removeAll(current);
+			
+			// Data files are not synchronised
+			removeDataFiles(del);
 
 		}
 		
@@ -162,7 +190,8 @@ public class DirectoryChanges {
 	 * {@link FileList} via {@link FileList#getMappedHashedModifications()}.
 	 * Then all keys of the previous map are removed from the current map and
 	 * the remaining values are returned.<br>
-	 * Only files which content changed are included.
+	 * Only files which content changed are included.<br>
+	 * In fast mode (see {@link #setFastModificationHash(boolean)}) 64-bit fingerprints are compared instead, see {@link FileList#getFingerprints(Set)}.
 	 * 
 	 * @return a {@link Set} of {@link Path}s
 	 * @param forceRecalculate whether there should be a recalculation of the changed files
@@ -181,47 +210,60 @@ public class DirectoryChanges {
 			if(logger.isDebugEnabled())
 				logger.debug("Files ignored: {}", new TreeSet<>(ignore));
 
-			// Create a map for modificated files and put modifications map from current directory
-			final HashMap<String, Path> mod = new HashMap<>(
-					current.getMappedHashedModifications(ignore));
+			final HashSet<Path> mod;
+
+			if(fastModificationHash){
 
-			//Receive modifications from previous directory
-			Map<String, Path> mod_p = previous.getMappedHashedModifications(ignore);
+				//Files whose fingerprint has no match in the other list
+				mod = new HashSet<>(current.getUnmatchedModifications(ignore, previous.getFingerprints(ignore)));
+				mod.addAll(previous.getUnmatchedModifications(ignore, current.getFingerprints(ignore)));
+			}
+			else {
+
+				// Create a map for modificated files and put modifications map from current directory
+				final HashMap<String, Path> mods = new HashMap<>(modificationHashes == null ?
+						current.getMappedHashedModifications(ignore) : current.getMappedHashedModifications(ignore, modificationHashes));
+
+				//Receive modifications from previous directory
+				Map<String, Path> mod_p = previous.getMappedHashedModifications(ignore);
 
-			//Intersect map keys
-			Set<String> intersection = new HashSet<>(mod.keySet());
-			intersection.retainAll(mod_p.keySet());
+				//Intersect map keys
+				Set<String> intersection = new HashSet<>(mods.keySet());
+				intersection.retainAll(mod_p.keySet());
 
-			if(logger.isDebugEnabled()){
+				if(logger.isDebugEnabled()){
 				
-				if(!(mod_p.size() > 500))
-					logger.debug("Modifications map of previous list: {}", new TreeMap<>(mod_p));
-				else
-					logger.debug("Previous modification map is bigger than 500 elements, will not print out.");
+					if(!(mod_p.size() > 500))
+						logger.debug("Modifications map of previous list: {}", new TreeMap<>(mod_p));
+					else
+						logger.debug("Previous modification map is bigger than 500 elements, will not print out.");
 				
-				if(!(mod_p.size() > 500))
-					logger.debug("Modifications map of current list: {}", new TreeMap<>(mod));
-				else
-					logger.debug("Current modification map is bigger than 500 elements, will not print out.");
-
-				if(!(mod_p.size() > 500))
-					logger.debug("Intersection of above: {}", intersection);
-				else
-					logger.debug("Intersection set is bigger than 500 elements, will not print out.");
-			}
+					if(!(mod_p.size() > 500))
+						logger.debug("Modifications map of current list: {}", new TreeMap<>(mods));
+					else
+						logger.debug("Current modification map is bigger than 500 elements, will not print out.");
 
-			//Merge maps
-			mod.putAll(mod_p);
+					if(!(mod_p.size() > 500))
+						logger.debug("Intersection of above: {}", intersection);
+					else
+						logger.debug("Intersection set is bigger than 500 elements, will not print out.");
+				}
+
+				//Merge maps
+				mods.putAll(mod_p);
 
-			// Remove everything which is in both maps
-			mod.keySet().removeAll(new TreeSet<>(intersection));
+				// Remove everything which is in both maps
+				mods.keySet().removeAll(new TreeSet<>(intersection));
 
-			//Only files which contents changed stay in map
-			//Iterate over keys
-			for(Iterator<String> i = mod.keySet().iterator(); i.hasNext(); ){
+				mod = new HashSet<>(mods.values());
+			}
+
+			//Only files which contents changed stay in set
+			//Iterate over paths
+			for(Iterator<Path> i = mod.iterator(); i.hasNext(); ){
 
 				//Get path
-				Path path = mod.get(i.next());
+				Path path = i.next();
 
 				//Check if file has changed (may throw I/O exception)
 				try{
@@ -246,7 +288,7 @@ public class DirectoryChanges {
 			}
 
 			//Save for reuse
-			changed = new HashSet<>(mod.values());
+			changed = mod;
 		}
 
 		//Return changed files
@@ -276,10 +318,23 @@ public class DirectoryChanges {
 			// Remove all what is in the previous set
 			nevv.removeAll(previous);
 			
+			// Data files are not synchronised
+			removeDataFiles(nevv);
+			
 		}
 		//Return
 		return nevv;
 	}
+	/**
+	 * Removes the directory data files, see {@link FileList#isDataFile(Path)}.
+	 * @param paths the relative {@link Path}s
+	 */
+	private static void removeDataFiles(Set<Path> paths){
+		
+		for(Iterator<Path> i = paths.iterator(); i.hasNext(); )
+			if(FileList.isDataFile(i.next()))
+				i.remove();
+	}
 	/**
 	 * 
 	 * @return the previous {@link FileList}
@@ -289,9 +344,35 @@ public class DirectoryChanges {
 	}
 
 	/**
-	 * Saves the <code>previous</code> and <code>current</code> {@link FileList} by {@link FileList#save()}.
+	 * Sets whether changed files are located by 64-bit fingerprints of path, size and modification time (fast mode)
+	 * instead of SHA-1 hashes of path and modification time, see {@link FileList#getFingerprints(Set)}.<br>
+	 * The changed files will be recalculated on next access.
+	 * @param fastModificationHash whether fast mode should be used
+	 */
+	public void setFastModificationHash(boolean fastModificationHash){
+		this.fastModificationHash = fastModificationHash;
+		changed = null;
+	}
+
+	/**
+	 * 
+	 * @return true if fast mode is used, otherwise false.
+	 * @see #setFastModificationHash(boolean)
+	 */
+	public boolean isFastModificationHash(){
+		return fastModificationHash;
+	}
+
+	/**
+	 * Saves the <code>previous</code> and <code>current</code> {@link FileList} by {@link FileList#save()}.<br>
+	 * The recorded metadata is refreshed before, as files may have been changed since scanning (e.g. by a sync), see {@link FileList#setRefreshOnSave(boolean)}.
 	 */
 	public void save(){
+		
+		//Do not save the metadata from before the sync
+		current.setRefreshOnSave(true);
+		previous.setRefreshOnSave(true);
+		
 		current.save();
 		previous.save();
 	}
@@ -307,12 +388,31 @@ public class DirectoryChanges {
 		path = makeRelative(path);
 
 		try {
-			return FileUtils.checksumCRC32(current.getDirectory().append(path).realPath().getFile()) != FileUtils.checksumCRC32(previous.getDirectory().append(path).realPath().getFile());
+			return checksum(current.getDirectory().append(path).realPath()) != checksum(previous.getDirectory().append(path).realPath());
 		}  catch(IllegalArgumentException e){ //Catch if is directory
 			logger.warn("Cannot compare file {}, is directory.", path);
 			return false;
 		}
 	}
+	/**
+	 * Calculates the CRC32 checksum of a file, or takes it from the checksum cache if it was already calculated.
+	 * @param path the real {@link Path} of the file
+	 * @return the checksum
+	 * @throws IOException If an I/O error occurs.
+	 * @see FileUtils#checksumCRC32(java.io.File)
+	 */
+	protected long checksum(Path path) throws IOException{
+		
+		Long checksum = checksums.get(path);
+		
+		//Calculate if not cached yet
+		if(checksum == null){
+			checksum = FileUtils.checksumCRC32(path.getFile());
+			checksums.put(path, checksum);
+		}
+		
+		return checksum;
+	}
 	/**
 	 * Makes a path relative also if you don't know whether it is from <code>current</code> or <code>previous</code> {@link FileList}. 
 	 * @param path the {@link Path}
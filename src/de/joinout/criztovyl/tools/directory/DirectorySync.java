@@ -20,6 +20,7 @@ package de.joinout.criztovyl.tools.directory;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
@@ -27,6 +28,7 @@ import org.apache.logging.log4j.Logger;
 
 import de.joinout.criztovyl.tools.CloneUtils;
 import de.joinout.criztovyl.tools.file.Path;
+import de.joinout.criztovyl.tools.files.FileList;
 
 /**
  * Synchronises files of two directories.
@@ -63,6 +65,28 @@ public class DirectorySync extends DirectoryChanges {
 		
 		logger = LogManager.getLogger();
 		
+		warnIfBaseEmpty();
+	}
+	
+	/**
+	 * Creates a new directory sync upon already scanned (relative) {@link FileList}s.
+	 * @param base the {@link FileList} of the base directory
+	 * @param branch the {@link FileList} of the branch directory
+	 * @param checksums the checksum cache, see {@link DirectoryChanges#DirectoryChanges(FileList, FileList, Map, Map)}
+	 * @param modificationHashes the modification hashes of the base list or <code>null</code>, see {@link DirectoryChanges#DirectoryChanges(FileList, FileList, Map, Map)}
+	 */
+	public DirectorySync(FileList base, FileList branch, Map<Path, Long> checksums, Map<Path, String> modificationHashes) {
+		super(base, branch, checksums, modificationHashes);
+		
+		logger = LogManager.getLogger();
+		
+		warnIfBaseEmpty();
+	}
+
+	/**
+	 * Warns if the base directory is empty, as a sync would delete the whole branch directory then.
+	 */
+	private void warnIfBaseEmpty() {
 		if(getCurrentList().isEmpty())
 			logger.warn("Base diretory is empty, will delete _complete_ branch directory if you run DiretorySync#removeDeletedFiles(true)!");
 	}
@@ -0,0 +1,306 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.directory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.joinout.criztovyl.tools.CloneUtils;
+import de.joinout.criztovyl.tools.file.Path;
+import de.joinout.criztovyl.tools.files.FileList;
+
+/**
+ * Synchronises one base directory to multiple branch directories.<br>
+ * The base directory is only scanned once and its checksums and modification hashes are shared between all branches. The branches are scanned and compared in parallel.<br>
+ * When syncing, each file from the base directory is only read once and written to all branches that need it (see {@link CloneUtils#cloneFile(Path, java.util.Collection)}).
+ * 
+ * @author criztovyl
+ * 
+ */
+public class MultiDirectorySync {
+
+	private final Logger logger;
+	private final FileList base;
+	private final List<DirectorySync> syncs;
+	private final int threads;
+
+	/**
+	 * Creates a new multi directory sync. <code>base</code> and <code>branches</code> are set.
+	 * 
+	 * @param base
+	 *            the directory the data is taken from
+	 * @param branches
+	 *            the directories the files are stored in
+	 * @throws IOException If an I/O error occurs
+	 */
+	public MultiDirectorySync(Path base, List<Path> branches) throws IOException {
+		this(base, branches, "");
+	}
+
+	/**
+	 * Creates a new multi directory sync. <code>base</code>, <code>branches</code> and regular expression for ignoring files are set.
+	 * 
+	 * @param base the base directory
+	 * @param branches the branch directories
+	 * @param ignoreRegex the regular expression for ignoring files
+	 * @throws IOException If an I/O error occurs while scanning the directories
+	 */
+	public MultiDirectorySync(Path base, List<Path> branches, final String ignoreRegex) throws IOException {
+
+		logger = LogManager.getLogger();
+
+		threads = Math.max(1, Math.min(branches.size(), Runtime.getRuntime().availableProcessors()));
+
+		//Scan base once
+		this.base = new FileList(base, ignoreRegex);
+
+		//Scan branches in parallel
+		List<Callable<FileList>> scans = new ArrayList<>();
+		for (final Path branch : branches)
+			scans.add(new Callable<FileList>() {
+
+				public FileList call() throws IOException {
+					return new FileList(branch, ignoreRegex).relative();
+				}
+			});
+
+		//Checksum cache shared by all branches, so base files are only checksummed once
+		Map<Path, Long> checksums = new ConcurrentHashMap<>();
+
+		//Modification hashes of the base files, created once for all branches
+		Map<Path, String> hashes = this.base.relative().getModificationHashes();
+
+		syncs = new ArrayList<>();
+		for (FileList branch : invokeAll(scans))
+
+			//Each sync needs its own relative copy of the base list, as the symbolic links of the branch are removed from it
+			syncs.add(new DirectorySync(this.base.relative(), branch, checksums, hashes));
+	}
+
+	/**
+	 * The base {@link FileList}.
+	 * @return a {@link FileList}
+	 */
+	public FileList getBaseList() {
+		return base;
+	}
+
+	/**
+	 * The {@link DirectorySync}s of each branch, in the order of the branches.
+	 * @return a {@link List} of {@link DirectorySync}s
+	 */
+	public List<DirectorySync> getSyncs() {
+		return Collections.unmodifiableList(syncs);
+	}
+
+	/**
+	 * Sets the modification hash mode of all branches, see {@link DirectoryChanges#setFastModificationHash(boolean)}.
+	 * @param fastModificationHash whether fast fingerprints should be used
+	 */
+	public void setFastModificationHash(boolean fastModificationHash) {
+		for (DirectorySync sync : syncs)
+			sync.setFastModificationHash(fastModificationHash);
+	}
+
+	/**
+	 * Calculates new, changed and deleted files of all branches in parallel.
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void calculate() throws IOException {
+
+		List<Callable<Void>> calcs = new ArrayList<>();
+		for (final DirectorySync sync : syncs)
+			calcs.add(new Callable<Void>() {
+
+				public Void call() {
+					sync.getNewFiles(false);
+					sync.getDeletedFiles(false);
+					sync.getChangedFiles(false);
+					return null;
+				}
+			});
+
+		invokeAll(calcs);
+	}
+
+	/**
+	 * Copies new files and updates changed files to all branches, then removes deleted files from each branch.<br>
+	 * Each base file is read once and streamed to all branches that need it. A changed file that is newer in a branch is copied back to the base first and then to the other branches.
+	 * @throws IOException If an I/O error occurs while calculating the changes
+	 * @see #calculate()
+	 * @see DirectorySync#removeDeletedFiles()
+	 */
+	public void sync() throws IOException {
+
+		calculate();
+
+		//Collect targets of each base file
+		Map<Path, List<Path>> targets = new HashMap<>();
+
+		for (DirectorySync sync : syncs) {
+
+			Path baseD = sync.getCurrentList().getDirectory();
+			Path branchD = sync.getPreviousList().getDirectory();
+
+			//New files are always located in the base directory
+			for (Path path : sync.getNewFiles(false)) {
+
+				Path src = baseD.append(path);
+
+				if (src.getFile().isDirectory())
+					branchD.append(path).getFile().mkdirs();
+				else
+					addTarget(targets, src, branchD.append(path));
+			}
+
+			//Changed files can be newer in the branch, they are copied back as by DirectorySync#updateChangedFiles()
+			for (Path path : sync.getChangedFiles(false)) {
+
+				if (path.isInDirectory(baseD))
+					addTarget(targets, path, sync.getComplementPath(path));
+
+				else
+					try {
+
+						if (logger.isInfoEnabled())
+							logger.info("Copying file {} from branch to {}", path, sync.getComplementPath(path));
+
+						final Path base = sync.getComplementPath(path);
+
+						CloneUtils.cloneFile(path, base);
+
+						//Base changed, pass it on to the other branches
+						for (DirectorySync other : syncs)
+							if (other != sync)
+								addTarget(targets, base, other.getPreviousList().getDirectory().append(base.relativeTo(baseD)));
+
+					} catch (final IOException e) {
+
+						if (logger.isWarnEnabled())
+							logger.warn("Caught IOException while copying file {}: {}", path, e.toString());
+						if (logger.isDebugEnabled())
+							logger.debug("IOException.", e);
+					}
+			}
+		}
+
+		if (logger.isInfoEnabled())
+			logger.info("Copying {} files to {} branches...", targets.size(), syncs.size());
+
+		int file = 1;
+
+		//Read each base file once, write to all targets
+		for (Path src : targets.keySet()) {
+			try {
+
+				if (logger.isInfoEnabled())
+					logger.info("Copying file {} of {} from {} to {}", file, targets.size(), src, targets.get(src));
+
+				CloneUtils.cloneFile(src, targets.get(src));
+
+				if (logger.isInfoEnabled())
+					logger.info("Copied.");
+
+			} catch (final IOException e) {
+
+				if (logger.isWarnEnabled())
+					logger.warn("Caught IOException while copying file {}: {}", src, e.toString());
+				if (logger.isDebugEnabled())
+					logger.debug("IOException.", e);
+			}
+
+			file++;
+		}
+
+		//Remove deleted files, branches are independent
+		List<Callable<Void>> removes = new ArrayList<>();
+		for (final DirectorySync sync : syncs)
+			removes.add(new Callable<Void>() {
+
+				public Void call() {
+					sync.removeDeletedFiles();
+					return null;
+				}
+			});
+
+		invokeAll(removes);
+	}
+
+	/**
+	 * Adds a target to the target list of a source file.
+	 * @param targets the {@link Map} of source and targets
+	 * @param src the source
+	 * @param target the target
+	 */
+	private void addTarget(Map<Path, List<Path>> targets, Path src, Path target) {
+
+		if (!targets.containsKey(src))
+			targets.put(src, new ArrayList<Path>());
+
+		//A base file copied back from a branch may already be a target of a branch
+		if (!targets.get(src).contains(target))
+			targets.get(src).add(target);
+	}
+
+	/**
+	 * Runs all tasks on a thread pool of at most one thread per branch and waits for all results.
+	 * @param tasks the tasks
+	 * @return the results, in the order of the tasks
+	 * @throws IOException If a task threw an {@link IOException}
+	 */
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+
+			List<T> results = new ArrayList<>();
+
+			for (Future<T> future : executor.invokeAll(tasks))
+				results.add(future.get());
+
+			return results;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for branches.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			else if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			else
+				throw new IOException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,379 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.directory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.joinout.criztovyl.tools.CloneUtils;
+import de.joinout.criztovyl.tools.file.Path;
+import de.joinout.criztovyl.tools.files.FileList;
+
+/**
+ * Synchronises two directories in both directions by using the {@link FileList} of the last sync as common ancestor.<br>
+ * Each file is classified in one pass as changed in the left directory, changed in the right directory or changed in both (a conflict).
+ * A file is changed if it was created, deleted or its modification hash (see {@link FileList#getModificationHash(Path)}) is not part of the ancestor.
+ * Only files changed on both sides are compared by their checksums, conflicts are resolved by a {@link ConflictPolicy}.<br>
+ * The left directory is the <code>current</code> and the right directory the <code>previous</code> {@link FileList} of the {@link DirectoryChanges}.
+ * 
+ * @author criztovyl
+ * 
+ */
+public class ThreeWayDirectorySync extends DirectoryChanges {
+
+	private final Logger logger;
+	private final FileList ancestor;
+	private final String ignoreRegex;
+	private ConflictPolicy policy;
+	private Set<Path> left, right, conflicts;
+
+	/**
+	 * Creates a new three-way sync. The ancestor is loaded from the {@link FileList} stored in the left directory.
+	 * 
+	 * @param left the left directory
+	 * @param right the right directory
+	 * @throws IOException If an I/O error occurs
+	 * @see #save()
+	 */
+	public ThreeWayDirectorySync(Path left, Path right) throws IOException {
+		this(left, right, new FileList(left, true), "");
+	}
+
+	/**
+	 * Creates a new three-way sync.
+	 * 
+	 * @param left the left directory
+	 * @param right the right directory
+	 * @param ancestor the {@link FileList} of the last sync
+	 * @param ignoreRegex the regular expression for ignoring files
+	 * @throws IOException If an I/O error occurs in {@link DirectoryChanges#DirectoryChanges(Path, Path, String)}
+	 */
+	public ThreeWayDirectorySync(Path left, Path right, FileList ancestor, String ignoreRegex) throws IOException {
+		super(left, right, ignoreRegex);
+
+		logger = LogManager.getLogger();
+
+		this.ancestor = ancestor.relative();
+		this.ignoreRegex = ignoreRegex;
+
+		policy = ConflictPolicies.NEWER;
+	}
+
+	/**
+	 * Sets the policy conflicts are resolved with. Default is {@link ConflictPolicies#NEWER}.
+	 * @param policy the {@link ConflictPolicy}
+	 * @return this, for chaining.
+	 */
+	public ThreeWayDirectorySync setConflictPolicy(ConflictPolicy policy) {
+		this.policy = policy;
+
+		return this;
+	}
+
+	/**
+	 * The {@link FileList} of the last sync.
+	 * @return a {@link FileList}
+	 */
+	public FileList getAncestorList() {
+		return ancestor;
+	}
+
+	/**
+	 * Pass-through to {@link #getLeftChanges(boolean)} with <code>false</code> so that there will no recalculation.
+	 * @return a {@link Set} of relative {@link Path}s
+	 */
+	public Set<Path> getLeftChanges() {
+		return getLeftChanges(false);
+	}
+
+	/**
+	 * Locates all files that were only changed in the left directory.
+	 * @param forceRecalculate whether there should be a recalculation
+	 * @return a {@link Set} of relative {@link Path}s
+	 */
+	public Set<Path> getLeftChanges(boolean forceRecalculate) {
+		classify(forceRecalculate);
+		return left;
+	}
+
+	/**
+	 * Pass-through to {@link #getRightChanges(boolean)} with <code>false</code> so that there will no recalculation.
+	 * @return a {@link Set} of relative {@link Path}s
+	 */
+	public Set<Path> getRightChanges() {
+		return getRightChanges(false);
+	}
+
+	/**
+	 * Locates all files that were only changed in the right directory.
+	 * @param forceRecalculate whether there should be a recalculation
+	 * @return a {@link Set} of relative {@link Path}s
+	 */
+	public Set<Path> getRightChanges(boolean forceRecalculate) {
+		classify(forceRecalculate);
+		return right;
+	}
+
+	/**
+	 * Pass-through to {@link #getConflicts(boolean)} with <code>false</code> so that there will no recalculation.
+	 * @return a {@link Set} of relative {@link Path}s
+	 */
+	public Set<Path> getConflicts() {
+		return getConflicts(false);
+	}
+
+	/**
+	 * Locates all files that were changed differently in both directories.
+	 * @param forceRecalculate whether there should be a recalculation
+	 * @return a {@link Set} of relative {@link Path}s
+	 */
+	public Set<Path> getConflicts(boolean forceRecalculate) {
+		classify(forceRecalculate);
+		return conflicts;
+	}
+
+	/**
+	 * Classifies all files of both directories and the ancestor in one pass.
+	 * @param forceRecalculate whether there should be a recalculation
+	 */
+	private void classify(boolean forceRecalculate) {
+
+		if (!forceRecalculate && conflicts != null)
+			return;
+
+		left = new HashSet<>();
+		right = new HashSet<>();
+		conflicts = new HashSet<>();
+
+		//Hashed sets for fast lookups
+		Set<Path> inLeft = new HashSet<>(getCurrentList());
+		Set<Path> inRight = new HashSet<>(getPreviousList());
+		Set<Path> inAncestor = new HashSet<>(ancestor);
+		Set<String> hashes = ancestor.getMappedHashedModifications().keySet();
+
+		//Union of all paths
+		Set<Path> all = new HashSet<>(inLeft);
+		all.addAll(inRight);
+		all.addAll(inAncestor);
+
+		for (Path path : all) {
+
+			//The file lists and trigram indices itself are not synchronised
+			if (FileList.isDataFile(path))
+				continue;
+
+			boolean l = inLeft.contains(path), r = inRight.contains(path), a = inAncestor.contains(path);
+
+			boolean changedL = changed(getCurrentList(), path, l, a, hashes);
+			boolean changedR = changed(getPreviousList(), path, r, a, hashes);
+
+			if (changedL && !changedR)
+				left.add(path);
+
+			else if (!changedL && changedR)
+				right.add(path);
+
+			else if (changedL && changedR && !sameContent(path, l, r))
+				conflicts.add(path);
+
+			else
+				;
+		}
+
+		if (logger.isDebugEnabled())
+			logger.debug("Left changes: {}; Right changes: {}; Conflicts: {}", left.size(), right.size(), conflicts.size());
+	}
+
+	/**
+	 * Checks whether a file changed since the last sync.
+	 * @param list the {@link FileList} the file is from
+	 * @param path the relative {@link Path}
+	 * @param in whether the file is in the list
+	 * @param inAncestor whether the file is in the ancestor
+	 * @param hashes the modification hashes of the ancestor
+	 * @return true if created, deleted or modified, otherwise false
+	 */
+	private boolean changed(FileList list, Path path, boolean in, boolean inAncestor, Set<String> hashes) {
+
+		//Deleted
+		if (!in)
+			return inAncestor;
+
+		//Created
+		if (!inAncestor)
+			return true;
+
+		//Directories have no hash, they cannot be modified
+		String hash = list.getModificationHash(path);
+		return hash != null && !hashes.contains(hash);
+	}
+
+	/**
+	 * Checks whether a file changed in both directories has the same content on both sides.
+	 * @param path the relative {@link Path}
+	 * @param l whether the file exists on the left side
+	 * @param r whether the file exists on the right side
+	 * @return true if both were deleted, both are directories or the checksums are equal, otherwise false.
+	 */
+	private boolean sameContent(Path path, boolean l, boolean r) {
+
+		if (!l && !r)
+			return true;
+
+		if (l != r)
+			return false;
+
+		boolean dirL = getCurrentList().getDirectory().append(path).getFile().isDirectory();
+		boolean dirR = getPreviousList().getDirectory().append(path).getFile().isDirectory();
+
+		if (dirL || dirR)
+			return dirL && dirR;
+
+		try {
+			return !contentChanged(path);
+		} catch (IOException e) {
+			if (logger.isWarnEnabled())
+				logger.warn("Caught IOException while comparing file {}, treating as conflict.", path);
+			if (logger.isDebugEnabled())
+				logger.debug("IOException.", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Applies all left and right changes and resolves the conflicts by the {@link ConflictPolicy}.
+	 * @see #setConflictPolicy(ConflictPolicy)
+	 */
+	public void sync() {
+
+		Path leftD = getCurrentList().getDirectory();
+		Path rightD = getPreviousList().getDirectory();
+		List<Path> directories = new ArrayList<>();
+
+		if (logger.isInfoEnabled())
+			logger.info("Applying {} left changes...", getLeftChanges().size());
+
+		for (Path path : getLeftChanges())
+			apply(path, leftD, rightD, directories);
+
+		if (logger.isInfoEnabled())
+			logger.info("Applying {} right changes...", getRightChanges().size());
+
+		for (Path path : getRightChanges())
+			apply(path, rightD, leftD, directories);
+
+		if (logger.isInfoEnabled())
+			logger.info("Resolving {} conflicts...", getConflicts().size());
+
+		for (Path path : new TreeSet<>(getConflicts()))
+			switch (policy.resolve(path, leftD.append(path), rightD.append(path))) {
+			case LEFT:
+				apply(path, leftD, rightD, directories);
+				break;
+			case RIGHT:
+				apply(path, rightD, leftD, directories);
+				break;
+			default:
+				if (logger.isInfoEnabled())
+					logger.info("Skipping conflict {}.", path);
+			}
+
+		//Remove deleted directories, deepest first. Only empty directories are removed.
+		Collections.sort(directories, new Comparator<Path>() {
+
+			public int compare(Path o1, Path o2) {
+				return o2.getPath().length() - o1.getPath().length();
+			}
+		});
+		for (Path directory : directories)
+			if (!directory.getFile().delete() && logger.isInfoEnabled())
+				logger.info("Not removing directory {}, is not empty.", directory);
+	}
+
+	/**
+	 * Transfers a change from one directory to the other.
+	 * @param path the relative {@link Path}
+	 * @param srcD the directory the change is taken from
+	 * @param targetD the directory the change is applied to
+	 * @param directories the list of directories that should be removed
+	 */
+	private void apply(Path path, Path srcD, Path targetD, List<Path> directories) {
+
+		Path src = srcD.append(path);
+		Path target = targetD.append(path);
+
+		try {
+
+			if (src.getFile().isFile()) {
+
+				if (logger.isInfoEnabled())
+					logger.info("Copying {} to {}", src, target);
+
+				CloneUtils.cloneFile(src, target);
+			}
+			else if (src.getFile().isDirectory())
+				target.getFile().mkdirs();
+
+			//Deleted
+			else if (target.getFile().isDirectory())
+				directories.add(target);
+
+			else {
+
+				if (logger.isInfoEnabled())
+					logger.info("Deleting {}", target);
+
+				Files.deleteIfExists(target.getNIOPath());
+			}
+
+		} catch (IOException e) {
+
+			if (logger.isWarnEnabled())
+				logger.warn("Caught IOException while transferring {} from {} to {}: {}", path, srcD, targetD, e.toString());
+			if (logger.isDebugEnabled())
+				logger.debug("IOException.", e);
+		}
+	}
+
+	/**
+	 * Rescans both directories and saves their {@link FileList}s, so they can be used as ancestor for the next sync.
+	 * @see FileList#save()
+	 */
+	@Override
+	public void save() {
+		try {
+			new FileList(getCurrentList().getDirectory(), ignoreRegex).relative().save();
+			new FileList(getPreviousList().getDirectory(), ignoreRegex).relative().save();
+		} catch (IOException e) {
+			if (logger.isErrorEnabled())
+				logger.error("Caught IOException while rescanning directories, ancestor not saved: {}", e.toString());
+			if (logger.isDebugEnabled())
+				logger.debug("IOException.", e);
+		}
+	}
+}
@@ -23,7 +23,11 @@ import java.nio.file.FileSystems;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import de.joinout.criztovyl.tools.json.JSONReader;
 
 /**
  * An object, that holds an path and it's separator.
@@ -48,9 +52,23 @@ public class Path implements Comparable<Path>{
 	 *            the JSON object
 	 */
 	public Path(JSONObject json) {
+		this(json.getString(Path.JSON_PATH), json.getString(Path.JSON_SEPARATOR), true);
+	}
 
-		path = json.getString(Path.JSON_PATH);
-		separator = json.getString(Path.JSON_SEPARATOR);
+	/**
+	 * Creates a path from stored data, path and separator are taken as they are (see {@link #Path(JSONObject)}).
+	 * 
+	 * @param path
+	 *            the path
+	 * @param separator
+	 *            the separator
+	 * @param stored
+	 *            marks stored data, to not collide with {@link #Path(String, String)}
+	 */
+	private Path(String path, String separator, boolean stored) {
+
+		this.path = path;
+		this.separator = separator;
 
 	}
 
@@ -235,6 +253,50 @@ public class Path implements Comparable<Path>{
 		return json;
 	}
 
+	/**
+	 * Writes the JSON data as the next value of a {@link JSONWriter}, equal to {@link #getJSON()}.
+	 * 
+	 * @param writer the {@link JSONWriter}
+	 */
+	public void writeJSON(JSONWriter writer) {
+		writer.object().key(Path.JSON_PATH).value(path).key(Path.JSON_SEPARATOR).value(separator).endObject();
+	}
+
+	/**
+	 * Reads a path from the next value of a {@link JSONReader}, the counterpart of {@link #writeJSON(JSONWriter)}.<br>
+	 * The path is created as by {@link #Path(JSONObject)}.
+	 * 
+	 * @param reader the {@link JSONReader}
+	 * @return a {@link Path}
+	 * @throws JSONException if the path or the separator is missing
+	 */
+	public static Path readJSON(JSONReader reader) {
+
+		String path = null, separator = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+
+			String key = reader.nextKey();
+
+			if (key.equals(Path.JSON_PATH))
+				path = reader.nextValue().toString();
+			else if (key.equals(Path.JSON_SEPARATOR))
+				separator = reader.nextValue().toString();
+			else
+				reader.nextValue();
+		}
+		reader.endObject();
+
+		if (path == null)
+			throw new JSONException("Path data misses key " + JSONObject.quote(Path.JSON_PATH) + ".");
+
+		if (separator == null)
+			throw new JSONException("Path data misses key " + JSONObject.quote(Path.JSON_SEPARATOR) + ".");
+
+		return new Path(path, separator, true);
+	}
+
 	/**
 	 * Creates the parent of this path by using {@link #getParent(String)} with {@link #getBasename()}.
 	 * @return the parent of this path.
@@ -0,0 +1,312 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * An Aho-Corasick automaton that finds all occurrences of multiple keywords in one pass over a text.<br>
+ * The keywords are stored as trie, each state has a link to the longest suffix that is also a trie state (used on mismatches)
+ * and a link to the next such suffix that ends a keyword (used to report all keywords ending at a position).<br>
+ * Transitions are kept in one open-addressing hash table with primitive keys, so texts are scanned without allocating.
+ * @author criztovyl
+ *
+ */
+public class AhoCorasick {
+
+	private final List<String> keywords;
+
+	//States
+	private int states;
+	private int[] fail, output, dictionary, depth, parent;
+	private char[] symbol;
+
+	//Transitions, key is state and character
+	private long[] keys;
+	private int[] targets;
+	private int transitions;
+
+	/**
+	 * Builds the automaton. Duplicate keywords are only stored once.
+	 * @param keywords the keywords
+	 */
+	public AhoCorasick(Collection<String> keywords) {
+
+		this.keywords = new ArrayList<>(new LinkedHashSet<>(keywords));
+
+		fail = new int[16];
+		output = new int[16];
+		dictionary = new int[16];
+		depth = new int[16];
+		parent = new int[16];
+		symbol = new char[16];
+
+		keys = new long[64];
+		targets = new int[64];
+		Arrays.fill(keys, -1);
+
+		//Root
+		newState(0, -1, (char) 0);
+
+		//Trie
+		int maxDepth = 0;
+
+		for (int id = 0; id < this.keywords.size(); id++) {
+
+			final String keyword = this.keywords.get(id);
+			int state = 0;
+
+			for (int i = 0; i < keyword.length(); i++) {
+
+				int next = getTransition(state, keyword.charAt(i));
+
+				if (next == -1) {
+					next = newState(i + 1, state, keyword.charAt(i));
+					putTransition(state, keyword.charAt(i), next);
+				}
+
+				state = next;
+			}
+
+			output[state] = id;
+			maxDepth = Math.max(maxDepth, keyword.length());
+		}
+
+		//Sort states by depth, parents need to be linked before their children
+		final int[] start = new int[maxDepth + 2];
+		for (int state = 0; state < states; state++)
+			start[depth[state] + 1]++;
+		for (int d = 0; d <= maxDepth; d++)
+			start[d + 1] += start[d];
+
+		final int[] order = new int[states];
+		for (int state = 0; state < states; state++)
+			order[start[depth[state]]++] = state;
+
+		//Suffix links
+		dictionary[0] = -1;
+
+		for (int i = 1; i < states; i++) {
+
+			final int state = order[i];
+			final char c = symbol[state];
+
+			if (parent[state] == 0)
+				fail[state] = 0;
+			else {
+
+				int f = fail[parent[state]], next;
+
+				while ((next = getTransition(f, c)) == -1 && f != 0)
+					f = fail[f];
+
+				fail[state] = next == -1 ? 0 : next;
+			}
+
+			dictionary[state] = output[fail[state]] != -1 ? fail[state] : dictionary[fail[state]];
+		}
+	}
+
+	/**
+	 * 
+	 * @return the keywords, the index in the list is the ID of the keyword
+	 */
+	public List<String> getKeywords() {
+		return keywords;
+	}
+
+	/**
+	 * Finds all keywords occurring in a text.
+	 * @param text the text
+	 * @param found the IDs of the found keywords are set in here, see {@link #getKeywords()}
+	 * @return true if at least one keyword was found, otherwise false
+	 */
+	public boolean find(CharSequence text, BitSet found) {
+
+		boolean any = report(0, found);
+		int state = 0;
+
+		for (int i = 0; i < text.length(); i++) {
+
+			final char c = text.charAt(i);
+			int next;
+
+			while ((next = getTransition(state, c)) == -1 && state != 0)
+				state = fail[state];
+
+			state = next == -1 ? 0 : next;
+
+			any = report(state, found) || any;
+		}
+
+		return any;
+	}
+
+	/**
+	 * Checks if a text contains any keyword, stops at the first one.
+	 * @param text the text
+	 * @return true if a keyword was found, otherwise false
+	 */
+	public boolean containsAny(CharSequence text) {
+
+		if (output[0] != -1)
+			return true;
+
+		int state = 0;
+
+		for (int i = 0; i < text.length(); i++) {
+
+			final char c = text.charAt(i);
+			int next;
+
+			while ((next = getTransition(state, c)) == -1 && state != 0)
+				state = fail[state];
+
+			state = next == -1 ? 0 : next;
+
+			if (output[state] != -1 || dictionary[state] != -1)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Reports all keywords ending in a state.
+	 * @param state the state
+	 * @param found the found keyword IDs
+	 * @return true if there was a keyword, otherwise false
+	 */
+	private boolean report(int state, BitSet found) {
+
+		boolean any = false;
+
+		for (int s = output[state] != -1 ? state : dictionary[state]; s != -1; s = dictionary[s]) {
+			found.set(output[s]);
+			any = true;
+		}
+
+		return any;
+	}
+
+	/**
+	 * Creates a new state.
+	 * @param d the depth of the state
+	 * @param p the parent state
+	 * @param c the character of the transition from the parent
+	 * @return the state
+	 */
+	private int newState(int d, int p, char c) {
+
+		if (states == fail.length) {
+			fail = Arrays.copyOf(fail, states * 2);
+			output = Arrays.copyOf(output, states * 2);
+			dictionary = Arrays.copyOf(dictionary, states * 2);
+			depth = Arrays.copyOf(depth, states * 2);
+			parent = Arrays.copyOf(parent, states * 2);
+			symbol = Arrays.copyOf(symbol, states * 2);
+		}
+
+		output[states] = -1;
+		dictionary[states] = -1;
+		depth[states] = d;
+		parent[states] = p;
+		symbol[states] = c;
+
+		return states++;
+	}
+
+	/**
+	 * Looks up a transition.
+	 * @param state the state
+	 * @param c the character
+	 * @return the next state or <code>-1</code> if there is no transition.
+	 */
+	private int getTransition(int state, char c) {
+
+		final long key = ((long) state << 16) | c;
+
+		for (int i = hash(key) & (keys.length - 1);; i = (i + 1) & (keys.length - 1)) {
+
+			if (keys[i] == key)
+				return targets[i];
+
+			if (keys[i] == -1)
+				return -1;
+		}
+	}
+
+	/**
+	 * Adds a transition, grows the table if half full.
+	 * @param state the state
+	 * @param c the character
+	 * @param next the next state
+	 */
+	private void putTransition(int state, char c, int next) {
+
+		if ((transitions + 1) * 2 > keys.length) {
+
+			final long[] oldKeys = keys;
+			final int[] oldTargets = targets;
+
+			keys = new long[oldKeys.length * 2];
+			targets = new int[oldKeys.length * 2];
+			Arrays.fill(keys, -1);
+
+			for (int i = 0; i < oldKeys.length; i++)
+				if (oldKeys[i] != -1)
+					insert(oldKeys[i], oldTargets[i]);
+		}
+
+		insert(((long) state << 16) | c, next);
+		transitions++;
+	}
+
+	/**
+	 * Inserts a key into the transition table.
+	 * @param key the key
+	 * @param next the next state
+	 */
+	private void insert(long key, int next) {
+
+		int i = hash(key) & (keys.length - 1);
+
+		while (keys[i] != -1)
+			i = (i + 1) & (keys.length - 1);
+
+		keys[i] = key;
+		targets[i] = next;
+	}
+
+	/**
+	 * Spreads a key over all bits.
+	 * @param key the key
+	 * @return the hash
+	 */
+	private static int hash(long key) {
+
+		key *= 0x9E3779B97F4A7C15L;
+
+		return (int) (key ^ (key >>> 32));
+	}
+}
@@ -0,0 +1,149 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Searches a byte sequence in byte arrays or {@link ByteBuffer}s by the Boyer-Moore-Horspool algorithm.<br>
+ * The pattern is compared from its last byte. On a mismatch the search skips ahead by a distance looked up from the last byte of the window,
+ * so most bytes of the data are never looked at for longer patterns.
+ * @author criztovyl
+ *
+ */
+public class ByteSearcher {
+
+	private final byte[] pattern;
+	private final int[] shift;
+
+	/**
+	 * Prepares a search for the given bytes.
+	 * @param pattern the bytes to search
+	 */
+	public ByteSearcher(byte[] pattern) {
+
+		this.pattern = pattern.clone();
+
+		shift = new int[256];
+
+		//Default: skip whole pattern
+		for (int i = 0; i < shift.length; i++)
+			shift[i] = pattern.length;
+
+		//Distance of the last occurrence of each byte to the pattern end, without the last byte
+		for (int i = 0; i < pattern.length - 1; i++)
+			shift[pattern[i] & 0xFF] = pattern.length - 1 - i;
+	}
+
+	/**
+	 * 
+	 * @return the length of the searched bytes
+	 */
+	public int length() {
+		return pattern.length;
+	}
+
+	/**
+	 * Locates the first occurrence inside a range of a {@link ByteBuffer}. The position of the buffer is not changed.
+	 * @param buffer the {@link ByteBuffer}
+	 * @param from the first index to look at
+	 * @param to the index after the last one to look at
+	 * @return the index of the first occurrence or <code>-1</code> if there is none.
+	 */
+	public int indexOf(ByteBuffer buffer, int from, int to) {
+
+		final int last = pattern.length - 1;
+
+		if (last < 0)
+			return from <= to ? from : -1;
+
+		final byte lastByte = pattern[last];
+
+		for (int i = from; i + last < to;) {
+
+			final byte b = buffer.get(i + last);
+
+			if (b == lastByte) {
+
+				int j = last - 1;
+
+				while (j >= 0 && buffer.get(i + j) == pattern[j])
+					j--;
+
+				if (j < 0)
+					return i;
+			}
+
+			i += shift[b & 0xFF];
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Locates the first occurrence inside a range of a byte array.
+	 * @param bytes the byte array
+	 * @param from the first index to look at
+	 * @param to the index after the last one to look at
+	 * @return the index of the first occurrence or <code>-1</code> if there is none.
+	 */
+	public int indexOf(byte[] bytes, int from, int to) {
+
+		final int last = pattern.length - 1;
+
+		if (last < 0)
+			return from <= to ? from : -1;
+
+		final byte lastByte = pattern[last];
+
+		for (int i = from; i + last < to;) {
+
+			final byte b = bytes[i + last];
+
+			if (b == lastByte) {
+
+				int j = last - 1;
+
+				while (j >= 0 && bytes[i + j] == pattern[j])
+					j--;
+
+				if (j < 0)
+					return i;
+			}
+
+			i += shift[b & 0xFF];
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Checks if the bytes occur at an index of a {@link ByteBuffer}.
+	 * @param buffer the {@link ByteBuffer}
+	 * @param index the index
+	 * @return true if all bytes are equal, otherwise false
+	 */
+	public boolean isAt(ByteBuffer buffer, int index) {
+
+		for (int i = 0; i < pattern.length; i++)
+			if (buffer.get(index + i) != pattern[i])
+				return false;
+
+		return true;
+	}
+}
@@ -0,0 +1,197 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import de.joinout.criztovyl.tools.file.Path;
+
+/**
+ * The type of a file's content, sniffed from its first block: whether it is binary and which charset its text is encoded with.<br>
+ * A file is binary if the block contains a NUL byte and there is no UTF-16 byte order mark.
+ * A byte order mark selects the charset, otherwise valid UTF-8 can be detected, all other files use the given default charset.
+ * @author criztovyl
+ *
+ */
+public class ContentType {
+
+	/**
+	 * The number of bytes sniffed from the start of a file.
+	 */
+	public static final int BLOCK_SIZE = 8192;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final boolean binary;
+	private final Charset charset;
+	private final int bomLength;
+
+	/**
+	 * Creates a new content type.
+	 * @param binary whether the content is binary
+	 * @param charset the {@link Charset} of the content
+	 * @param bomLength the length of the byte order mark, 0 if there is none
+	 */
+	public ContentType(boolean binary, Charset charset, int bomLength) {
+		this.binary = binary;
+		this.charset = charset;
+		this.bomLength = bomLength;
+	}
+
+	/**
+	 * Sniffs the first block of a file.
+	 * @param file the file
+	 * @param fallback the {@link Charset} used if none is detected
+	 * @param detect whether UTF-8 should be detected if there is no byte order mark
+	 * @return a {@link ContentType}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static ContentType sniff(Path file, Charset fallback, boolean detect) throws IOException {
+
+		final byte[] block = new byte[BLOCK_SIZE];
+		int length = 0;
+
+		try (InputStream in = new FileInputStream(file.getFile())) {
+
+			//Fill block, read may return less
+			for (int read = 0; read != -1 && length < block.length; read = in.read(block, length, block.length - length))
+				length += read;
+		}
+
+		return sniff(block, length, fallback, detect);
+	}
+
+	/**
+	 * Sniffs a block from the start of a file.
+	 * @param block the bytes
+	 * @param length the number of bytes in the block
+	 * @param fallback the {@link Charset} used if none is detected
+	 * @param detect whether UTF-8 should be detected if there is no byte order mark
+	 * @return a {@link ContentType}
+	 */
+	public static ContentType sniff(byte[] block, int length, Charset fallback, boolean detect) {
+
+		//Byte order marks
+		if (startsWith(block, length, 0xEF, 0xBB, 0xBF))
+			return new ContentType(false, UTF8, 3);
+
+		if (startsWith(block, length, 0xFE, 0xFF))
+			return new ContentType(false, Charset.forName("UTF-16BE"), 2);
+
+		if (startsWith(block, length, 0xFF, 0xFE))
+			return new ContentType(false, Charset.forName("UTF-16LE"), 2);
+
+		boolean ascii = true;
+
+		for (int i = 0; i < length; i++)
+			if (block[i] == 0)
+				return new ContentType(true, fallback, 0);
+			else if (block[i] < 0)
+				ascii = false;
+
+		//ASCII is the same in every compatible charset
+		if (detect && !ascii && isUTF8(block, length))
+			return new ContentType(false, UTF8, 0);
+
+		return new ContentType(false, fallback, 0);
+	}
+
+	/**
+	 * Checks if a block is valid UTF-8. A sequence cut off by the end of the block is accepted.
+	 * @param block the bytes
+	 * @param length the number of bytes in the block
+	 * @return true if the block is valid UTF-8, otherwise false.
+	 */
+	public static boolean isUTF8(byte[] block, int length) {
+
+		for (int i = 0; i < length;) {
+
+			final int b = block[i] & 0xFF;
+
+			//Number of continuation bytes
+			final int following;
+
+			if (b < 0x80)
+				following = 0;
+			else if (b >= 0xC2 && b <= 0xDF)
+				following = 1;
+			else if (b >= 0xE0 && b <= 0xEF)
+				following = 2;
+			else if (b >= 0xF0 && b <= 0xF4)
+				following = 3;
+			else
+				return false;
+
+			i++;
+
+			for (int j = 0; j < following; j++, i++)
+				if (i >= length)
+					return true;
+				else if ((block[i] & 0xC0) != 0x80)
+					return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks if a block starts with some bytes.
+	 * @param block the bytes
+	 * @param length the number of bytes in the block
+	 * @param bytes the expected bytes as unsigned values
+	 * @return true if the block starts with the bytes
+	 */
+	private static boolean startsWith(byte[] block, int length, int... bytes) {
+
+		if (length < bytes.length)
+			return false;
+
+		for (int i = 0; i < bytes.length; i++)
+			if ((block[i] & 0xFF) != bytes[i])
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * 
+	 * @return true if the content is binary
+	 */
+	public boolean isBinary() {
+		return binary;
+	}
+
+	/**
+	 * 
+	 * @return the {@link Charset} of the content
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * 
+	 * @return the length of the byte order mark, 0 if there is none
+	 */
+	public int getBOMLength() {
+		return bomLength;
+	}
+}
@@ -0,0 +1,229 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import de.joinout.criztovyl.tools.json.JSONCalendar;
+import de.joinout.criztovyl.tools.json.JSONReader;
+
+/**
+ * The metadata of a file inside a {@link FileList}: when it was listed, its size, its modification time and its file key.<br>
+ * All values are taken from one {@link BasicFileAttributes} read while scanning, so changes can be detected without touching the file system again.<br>
+ * Entries loaded from older lists only know when they were listed, see {@link #hasMetadata()}.
+ * @author criztovyl
+ *
+ */
+public class FileEntry {
+
+	private static final String JSON_LIST_DATE = "listDate";
+
+	private static final String JSON_SIZE = "size";
+
+	private static final String JSON_LAST_MODIFIED = "lastModified";
+
+	private static final String JSON_DIRECTORY = "directory";
+
+	private static final String JSON_FILE_KEY = "fileKey";
+
+	private final long listDate, size, lastModified;
+
+	private final boolean directory;
+
+	private final String fileKey;
+
+	/**
+	 * Creates a new entry with all values.
+	 * @param listDate the time the file was listed, in milliseconds since epoch
+	 * @param size the size in bytes
+	 * @param lastModified the modification time, in milliseconds since epoch, or -1 if unknown
+	 * @param directory whether the file is a directory
+	 * @param fileKey the file key or <code>null</code> if not available
+	 */
+	public FileEntry(long listDate, long size, long lastModified, boolean directory, String fileKey) {
+		this.listDate = listDate;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.directory = directory;
+		this.fileKey = fileKey;
+	}
+
+	/**
+	 * Creates a new entry from the file attributes.
+	 * @param listDate the time the file was listed, in milliseconds since epoch
+	 * @param attributes the {@link BasicFileAttributes}
+	 */
+	public FileEntry(long listDate, BasicFileAttributes attributes) {
+		this(listDate, attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.isDirectory(),
+				attributes.fileKey() == null ? null : attributes.fileKey().toString());
+	}
+
+	/**
+	 * Creates a new entry without metadata.
+	 * @param listDate the time the file was listed, in milliseconds since epoch
+	 */
+	public FileEntry(long listDate) {
+		this(listDate, -1, -1, false, null);
+	}
+
+	/**
+	 * Creates a new entry from a JSON object. Also reads the {@link JSONCalendar} data of older lists.
+	 * @param json the JSON object
+	 */
+	public FileEntry(JSONObject json) {
+		this(json.has(JSON_LIST_DATE) ? json.getLong(JSON_LIST_DATE) : json.getLong(JSONCalendar.JSON_EPOCH_MILLIS),
+				json.has(JSON_SIZE) ? json.getLong(JSON_SIZE) : -1,
+				json.has(JSON_LAST_MODIFIED) ? json.getLong(JSON_LAST_MODIFIED) : -1,
+				json.has(JSON_DIRECTORY) && json.getBoolean(JSON_DIRECTORY),
+				json.has(JSON_FILE_KEY) ? json.getString(JSON_FILE_KEY) : null);
+	}
+
+	/**
+	 * Reads an entry from the next value of a {@link JSONReader}, the counterpart of {@link #writeJSON(JSONWriter)}.<br>
+	 * Also reads the {@link JSONCalendar} data and plain timestamps of older lists.
+	 * @param reader the {@link JSONReader}
+	 * @return a {@link FileEntry}
+	 */
+	public static FileEntry readJSON(JSONReader reader) {
+
+		//Plain timestamp
+		if (reader.peek() != '{')
+			return new FileEntry(Long.parseLong(reader.nextValue().toString()));
+
+		long listDate = 0, size = -1, lastModified = -1;
+		boolean directory = false;
+		String fileKey = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+
+			String key = reader.nextKey();
+
+			if (key.equals(JSON_LIST_DATE) || key.equals(JSONCalendar.JSON_EPOCH_MILLIS))
+				listDate = ((Number) reader.nextValue()).longValue();
+			else if (key.equals(JSON_SIZE))
+				size = ((Number) reader.nextValue()).longValue();
+			else if (key.equals(JSON_LAST_MODIFIED))
+				lastModified = ((Number) reader.nextValue()).longValue();
+			else if (key.equals(JSON_DIRECTORY))
+				directory = (Boolean) reader.nextValue();
+			else if (key.equals(JSON_FILE_KEY))
+				fileKey = reader.nextValue().toString();
+			else
+				reader.nextValue();
+		}
+		reader.endObject();
+
+		return new FileEntry(listDate, size, lastModified, directory, fileKey);
+	}
+
+	/**
+	 * @return the time the file was listed, in milliseconds since epoch
+	 */
+	public long getListDate() {
+		return listDate;
+	}
+
+	/**
+	 * @return the size in bytes or -1 if unknown
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the modification time in milliseconds since epoch or -1 if unknown
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return whether the file is a directory
+	 */
+	public boolean isDirectory() {
+		return directory;
+	}
+
+	/**
+	 * The file key identifies a file independent of its path, see {@link BasicFileAttributes#fileKey()}.
+	 * @return the file key or <code>null</code> if not available
+	 */
+	public String getFileKey() {
+		return fileKey;
+	}
+
+	/**
+	 * @return true if size and modification time are known, false if the entry is from an older list or the file disappeared.
+	 */
+	public boolean hasMetadata() {
+		return lastModified >= 0;
+	}
+
+	/**
+	 * Creates a JSON object
+	 * 
+	 * @return the JSON data of this object
+	 */
+	public JSONObject getJSON() {
+
+		final JSONObject json = new JSONObject();
+
+		json.put(JSON_LIST_DATE, listDate);
+		json.put(JSON_SIZE, size);
+		json.put(JSON_LAST_MODIFIED, lastModified);
+		json.put(JSON_DIRECTORY, directory);
+
+		if (fileKey != null)
+			json.put(JSON_FILE_KEY, fileKey);
+
+		return json;
+	}
+
+	/**
+	 * Writes the JSON data as the next value of a {@link JSONWriter}, equal to {@link #getJSON()}.
+	 * 
+	 * @param writer the {@link JSONWriter}
+	 */
+	public void writeJSON(JSONWriter writer) {
+
+		writer.object();
+
+		writer.key(JSON_LIST_DATE).value(listDate);
+		writer.key(JSON_SIZE).value(size);
+		writer.key(JSON_LAST_MODIFIED).value(lastModified);
+		writer.key(JSON_DIRECTORY).value(directory);
+
+		if (fileKey != null)
+			writer.key(JSON_FILE_KEY).value(fileKey);
+
+		writer.endObject();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getJSON().toString();
+	}
+}
@@ -18,26 +18,36 @@
 package de.joinout.criztovyl.tools.files;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
 import de.joinout.criztovyl.tools.file.Path;
 import de.joinout.criztovyl.tools.json.JSONCalendar;
 import de.joinout.criztovyl.tools.json.JSONFile;
 import de.joinout.criztovyl.tools.json.JSONMap;
+import de.joinout.criztovyl.tools.json.JSONReader;
+import de.joinout.criztovyl.tools.json.JSONStreamable;
 import de.joinout.criztovyl.tools.json.creator.JSONCreators;
 
 /**
@@ -47,12 +57,13 @@ import de.joinout.criztovyl.tools.json.creator.JSONCreators;
  * Object can be saved as JSON.<br>
  * The list also holds when it was last time listed, also for later usage.<br>
  * If a new {@link FileList} is created, normally it will locate all files in the directory it was created on.<br>
+ * While scanning, size, modification time and file key of each file are recorded in a {@link FileEntry}, so modifications can be detected without touching the file system again.<br>
  * All {@link Path}s inside {@link Set} are takes as put in. (i.e. creating on directory <code>dir</code> file <code>file</code> inside <code>dir</code> will be stored as <code>dir/file</code>.
  * But if directory is <code>/home/user/dir</code>, file <code>file</code> inside will be stored as <code>/home/user/dir/file</code>.
  * @author criztovyl
  * 
  */
-public class FileList extends AbstractCollection<Path> implements Set<Path>{
+public class FileList extends AbstractCollection<Path> implements Set<Path>, JSONStreamable{
 
 	/**
 	 * JSON key for the base directory.
@@ -84,7 +95,7 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 	 */
 	public static final String JSON_FILE_NAME = ".dirSync.fileList";
 
-	private Map<Path, Calendar> map;
+	private Map<Path, FileEntry> map;
 
 	private Path directory;
 
@@ -96,10 +107,14 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 
 	private JSONFile jsonFile;
 	
+	private Map<String, Path> modifications;
+	
 	private ArrayList<Path> symlinks;
 
 	private boolean jsonOnly;
 
+	private boolean refreshOnSave;
+
 	/**
 	 * Creates a new {@link FileList} upon the given {@link Path}.
 	 * 
@@ -128,6 +143,8 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 
 		jsonOnly = fileList.jsonOnly;
 
+		refreshOnSave = fileList.refreshOnSave;
+
 		map = fileList.map;
 
 		lastListDate = fileList.lastListDate;
@@ -136,6 +153,10 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 		
 		symlinks = fileList.symlinks;
 		
+		jsonFile = fileList.jsonFile;
+		
+		modifications = fileList.modifications;
+		
 		//Set up logger
 		
 		logger = LogManager.getLogger();
@@ -194,8 +215,16 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 		setupVars(directory, ignoreRegex, jsonOnly);
 		
 		//Set up again, if should load JSON data (first time setup is done because #getDirectory need to been initialised)
-		if(jsonOnly)
-			setupVars(new JSONFile(getDirectory().append(JSON_FILE_NAME)).getJSONObject());
+		if(jsonOnly){
+			final JSONReader reader = new JSONFile(getDirectory().append(JSON_FILE_NAME)).getJSONReader();
+			try {
+				setupVars(reader);
+			} catch (JSONException e) {
+				throw new IOException(e);
+			} finally {
+				reader.close();
+			}
+		}
 
 	}
 
@@ -226,17 +255,20 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 		
 		try {
 			
+			//Read all attributes at once, without following symbolic links
+			final BasicFileAttributes attributes = Files.readAttributes(path.getFile().toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			
 			//Check if is not a symbolic link
-			if(!FileUtils.isSymlink(path.getFile())){
+			if(!attributes.isSymbolicLink()){
 				
 				// Check if is file and add to index
-				if (path.getFile().isFile()) {
+				if (attributes.isRegularFile()) {
 
 					// Only add if does not match the regular expression
 					if (!isIgnored(path)) {
 
 						// Add and receive if changed
-						changed = null != map.put(path, Calendar.getInstance());
+						changed = null != map.put(path, new FileEntry(System.currentTimeMillis(), attributes));
 
 						if (logger.isDebugEnabled())
 							logger.debug("Added.");
@@ -251,17 +283,20 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 
 				// Check if is directory and add to index. If not ignored, also add the
 				// subfiles/-directories
-				else if (path.getFile().isDirectory() && !isIgnored(path)) {
+				else if (attributes.isDirectory() && !isIgnored(path)) {
 
 					// Add base directory to list and receive if changed
-					changed = null != map.put(path, Calendar.getInstance());
+					changed = null != map.put(path, new FileEntry(System.currentTimeMillis(), attributes));
+
+					final String[] subs = path.getFile().list();
 
 					// Iterate over sub-directories and -files and add them too
-					for (final String sub : path.getFile().list()) {
+					if (subs != null)
+						for (final String sub : subs) {
 
-						// Add and receive if changed, keep true if already true
-						changed = changed || add(path.append(sub));
-					}
+							// Add and receive if changed, keep true if already true
+							changed = changed || add(path.append(sub));
+						}
 
 				} else
 					;
@@ -277,9 +312,12 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 			}
 				
 
+		} catch (NoSuchFileException e) {
+			if(logger.isDebugEnabled())
+				logger.debug("{} does not exist.", path);
 		} catch (IOException e) {
 			if(logger.isErrorEnabled())
-				logger.error("IOException while testing if is symlink: {}", e.toString());
+				logger.error("IOException while reading attributes: {}", e.toString());
 			if(logger.isDebugEnabled())
 				logger.debug(e);
 		}
@@ -379,7 +417,7 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 					lastListDate).getJSON());
 
 		//Store files list/map
-		json.put(FileList.JSON_LIST, new JSONMap<>(map, JSONCreators.PATH, JSONCreators.CALENDAR).getJSON());
+		json.put(FileList.JSON_LIST, new JSONMap<>(map, JSONCreators.PATH, JSONCreators.FILE_ENTRY).getJSON());
 
 		//Create JSON object for modifications
 		final JSONObject modsJ = new JSONObject();
@@ -398,6 +436,48 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 		return json;
 	}
 
+	/**
+	 * Writes the JSON data of this {@link FileList} to a {@link Writer}, equal to {@link #getJSON()}.<br>
+	 * The files and modifications are written entry by entry, without creating a {@link JSONObject} of them.
+	 * 
+	 * @param writer the {@link Writer}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void writeJSON(Writer writer) throws IOException {
+
+		try {
+			final JSONWriter json = new JSONWriter(writer);
+
+			json.object();
+
+			//Put base directory as JSON
+			json.key(FileList.JSON_DIR);
+			getDirectory().writeJSON(json);
+
+			//Put ignore regular expression
+			json.key(FileList.JSON_IGNORE_REGEX).value(ignoreRegex);
+
+			//Put last list date if not null
+			if (lastListDate != null){
+				json.key(FileList.JSON_LAST_LIST_DATE);
+				JSONCreators.write(JSONCreators.CALENDAR, lastListDate, json);
+			}
+
+			//Store files list/map
+			json.key(FileList.JSON_LIST);
+			new JSONMap<>(map, JSONCreators.PATH, JSONCreators.FILE_ENTRY).writeJSON(json);
+
+			//Store modifications
+			json.key(JSON_MODIFICATIONS);
+			new JSONMap<>(getMappedHashedModifications(), JSONCreators.STRING, JSONCreators.PATH).writeJSON(json);
+
+			json.endObject();
+
+		} catch (JSONException e) {
+			throw new IOException(e);
+		}
+	}
+
 	/**
 	 * The date this list was listed last time.
 	 * @return a {@link Calendar} or <code>null</code>, if listed first time.
@@ -448,18 +528,14 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 
 		final Map<String, Path> mods = new HashMap<>();
 
-		// Create empty set if ignore is null
-		if (ignore == null)
-			ignore = new HashSet<>();
-			else
-				;
-
-		// JSON data-file should be ignored, adding to list
-		ignore.add(getDirectory().append(JSON_FILE_NAME));
+		ignore = ignoreDataFiles(ignore);
 
 		//Check if should use JSON only. If so, load map from JSON file.
 		if(jsonOnly){
-			if(jsonFile.getJSONObject().has(JSON_MODIFICATIONS)){
+			if(modifications != null){
+				return new HashMap<>(modifications);
+			}
+			else if(jsonFile.getJSONObject().has(JSON_MODIFICATIONS)){
 				return new JSONMap<>(jsonFile.getJSONObject().getJSONObject(JSON_MODIFICATIONS), JSONCreators.STRING, JSONCreators.PATH).getMap();
 			}
 			else
@@ -470,26 +546,263 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 			// Iterate
 			for (Path path : map.keySet()){
 
-				Path pathF = getDirectory().append(path);
-				try {
-					pathF = pathF.realPath();
-				} catch (IOException e) {
-					logger.warn("Caught Exception while resolving real path of file {}", path, e);
-				}
-
 				// Check if should not ignored
-				if (!ignore.contains(path))
+				if (!ignore.contains(path)){
+
+					final FileEntry entry = map.get(path);
+
 					// Put with hashed path and modification time as key and
-					// full path as value
-					if(pathF.getFile().isFile())
-						mods.put(DigestUtils.sha1Hex(path.getPath()
-								+ Long.toString(pathF.getFile().lastModified())), pathF);
+					// full path as value. Use the recorded metadata if present.
+					if(entry.hasMetadata()){
+						if(!entry.isDirectory())
+							mods.put(getModificationHash(path, entry.getLastModified()), getFile(path));
+					}
+					else {
+
+						Path pathF = getRealPath(path);
+
+						if(pathF.getFile().isFile())
+							mods.put(getModificationHash(path, pathF.getFile().lastModified()), pathF);
+					}
+				}
 
 			}
 
 		// Return
 		return mods;
 	}
+	/**
+	 * Generates a map as {@link #getMappedHashedModifications(Set, boolean)} does, but takes the hashes from a map created before by {@link #getModificationHashes()}.<br>
+	 * So the hashes of a list can be created once and used for multiple copies of it, as example with different files ignored.
+	 * Paths without a hash in the map are not included.
+	 * @param ignore a set which contains {@link Path}s that should be ignored. Can be <code>null</code>.
+	 * @param hashes the hashes, see {@link #getModificationHashes()}
+	 * @return a {@link Map} with a {@link String} as key and the {@link Path} as value.
+	 */
+	public Map<String, Path> getMappedHashedModifications(Set<Path> ignore, Map<Path, String> hashes) {
+
+		final Map<String, Path> mods = new HashMap<>();
+
+		ignore = ignoreDataFiles(ignore);
+
+		for (Path path : map.keySet()){
+
+			final String hash = hashes.get(path);
+
+			if (hash != null && !ignore.contains(path))
+				mods.put(hash, map.get(path).hasMetadata() ? getFile(path) : getRealPath(path));
+		}
+
+		return mods;
+	}
+	/**
+	 * Creates the hashes of all files in this list, see {@link #getModificationHash(Path)}.
+	 * @return a {@link Map} with the {@link Path} as stored in this list as key and the hash as value, directories are not included.
+	 * @see #getMappedHashedModifications(Set, Map)
+	 */
+	public Map<Path, String> getModificationHashes() {
+
+		final Map<Path, String> hashes = new HashMap<>();
+
+		for (Path path : map.keySet()){
+
+			final String hash = getModificationHash(path);
+
+			if (hash != null)
+				hashes.put(path, hash);
+		}
+
+		return hashes;
+	}
+	/**
+	 * Adds the JSON data-file and the trigram index to a set of ignored {@link Path}s, absolute and relative.
+	 * @param ignore the set, can be <code>null</code>.
+	 * @return the set, a new one if it was <code>null</code>.
+	 */
+	private Set<Path> ignoreDataFiles(Set<Path> ignore){
+
+		// Create empty set if ignore is null
+		if (ignore == null)
+			ignore = new HashSet<>();
+
+		ignore.add(getDirectory().append(JSON_FILE_NAME));
+		ignore.add(getDirectory().append(TrigramIndex.FILE_NAME));
+		ignore.add(new Path(JSON_FILE_NAME));
+		ignore.add(new Path(TrigramIndex.FILE_NAME));
+
+		return ignore;
+	}
+	/**
+	 * Creates the hash of a file name and its modification date, as used as key by {@link #getMappedHashedModifications(Set, boolean)}.<br>
+	 * Uses the modification time recorded while scanning, the file system is only asked if it is not known.
+	 * @param path the {@link Path}, as stored in this list
+	 * @return the hash {@link String} or <code>null</code> if the path is not a file.
+	 */
+	public String getModificationHash(Path path){
+
+		final FileEntry entry = map.get(path);
+
+		if(entry != null && entry.hasMetadata())
+			return entry.isDirectory() ? null : getModificationHash(path, entry.getLastModified());
+
+		Path pathF = getRealPath(path);
+
+		return pathF.getFile().isFile() ? getModificationHash(path, pathF.getFile().lastModified()) : null;
+	}
+	/**
+	 * Creates the hash of a file name and the modification date of the file.
+	 * @param path the {@link Path}, as stored in this list
+	 * @param lastModified the modification time of the file
+	 * @return the hash {@link String}
+	 */
+	private String getModificationHash(Path path, long lastModified){
+		return DigestUtils.sha1Hex(path.getPath() + Long.toString(lastModified));
+	}
+	/**
+	 * Creates the fingerprints of all files in this list, the fast alternative to {@link #getMappedHashedModifications(Set)}.<br>
+	 * The fingerprints are taken from the recorded metadata, paths are not resolved (symbolic links were already skipped while scanning).
+	 * Pass them to {@link #getUnmatchedModifications(Set, long[])} of the list to compare with.
+	 * @param ignore a set which contains {@link Path}s that should be ignored. Can be <code>null</code>.
+	 * @return the sorted fingerprints, see {@link #getFingerprint(Path, long, long)}
+	 */
+	public long[] getFingerprints(Set<Path> ignore){
+
+		ignore = ignoreDataFiles(ignore);
+
+		long[] fingerprints = new long[map.size()];
+		int size = 0;
+
+		for(Map.Entry<Path, FileEntry> entry : map.entrySet()){
+
+			if(ignore.contains(entry.getKey()))
+				continue;
+
+			final FileEntry file = getFileMetadata(entry.getKey(), entry.getValue());
+
+			if(file != null)
+				fingerprints[size++] = getFingerprint(entry.getKey(), file.getSize(), file.getLastModified());
+		}
+
+		fingerprints = Arrays.copyOf(fingerprints, size);
+		Arrays.sort(fingerprints);
+
+		return fingerprints;
+	}
+	/**
+	 * Locates the files whose fingerprint is not in the fingerprints of another list, as example because size or modification time are different.<br>
+	 * Files of JSON only lists without recorded metadata are not included, they cannot be fingerprinted.
+	 * @param ignore a set which contains {@link Path}s that should be ignored. Can be <code>null</code>.
+	 * @param fingerprints the sorted fingerprints of the other list, see {@link #getFingerprints(Set)}
+	 * @return a {@link List} of the full {@link Path}s
+	 */
+	public List<Path> getUnmatchedModifications(Set<Path> ignore, long[] fingerprints){
+
+		ignore = ignoreDataFiles(ignore);
+
+		final List<Path> unmatched = new ArrayList<>();
+
+		for(Map.Entry<Path, FileEntry> entry : map.entrySet()){
+
+			if(ignore.contains(entry.getKey()))
+				continue;
+
+			final FileEntry file = getFileMetadata(entry.getKey(), entry.getValue());
+
+			if(file != null && Arrays.binarySearch(fingerprints, getFingerprint(entry.getKey(), file.getSize(), file.getLastModified())) < 0)
+				unmatched.add(getFile(entry.getKey()));
+		}
+
+		return unmatched;
+	}
+	/**
+	 * Returns the metadata of a file for its fingerprint. Entries without recorded metadata are read once, without following symbolic links.
+	 * @param path the {@link Path}, as stored in this list
+	 * @param entry the recorded {@link FileEntry}
+	 * @return a {@link FileEntry} with metadata or <code>null</code> if the path is not a file or the metadata is unknown.
+	 */
+	private FileEntry getFileMetadata(Path path, FileEntry entry){
+
+		if(entry.hasMetadata())
+			return entry.isDirectory() ? null : entry;
+
+		//Data of a JSON only list is not on disk
+		if(jsonOnly)
+			return null;
+
+		try {
+			final BasicFileAttributes attributes = Files.readAttributes(getFile(path).getFile().toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+			return attributes.isRegularFile() ? new FileEntry(entry.getListDate(), attributes) : null;
+		} catch (IOException e) {
+			if(logger.isDebugEnabled())
+				logger.debug("Cannot read attributes of {}: {}", path, e.toString());
+
+			return null;
+		}
+	}
+	/**
+	 * Creates a 64-bit non-cryptographic fingerprint of a file. The path is hashed by FNV-1a to a path id,
+	 * which is mixed with size and modification time.
+	 * @param path the {@link Path}
+	 * @param size the size of the file
+	 * @param lastModified the modification time of the file
+	 * @return the fingerprint
+	 */
+	public static long getFingerprint(Path path, long size, long lastModified){
+
+		final String string = path.getPath();
+
+		//FNV-1a
+		long id = 0xcbf29ce484222325L;
+		for(int i = 0; i < string.length(); i++){
+			id ^= string.charAt(i);
+			id *= 0x100000001b3L;
+		}
+
+		return mix(mix(mix(id) ^ size) ^ lastModified);
+	}
+	/**
+	 * The SplitMix64 finalizer, spreads every input bit over the whole result.
+	 * @param z the value
+	 * @return the mixed value
+	 */
+	private static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	/**
+	 * Returns the {@link FileEntry} recorded for a {@link Path}.
+	 * @param path the {@link Path}, as stored in this list
+	 * @return a {@link FileEntry} or <code>null</code> if the path is not in this list.
+	 */
+	public FileEntry getEntry(Path path){
+		return map.get(path);
+	}
+	/**
+	 * Returns the full {@link Path} of a {@link Path} stored in this list.
+	 * @param path the {@link Path}, as stored in this list
+	 * @return the {@link Path} if it is already inside the base directory, otherwise the {@link Path} appended to the base directory.
+	 */
+	private Path getFile(Path path){
+		return path.isInDirectory(getDirectory()) ? path : getDirectory().append(path);
+	}
+	/**
+	 * Resolves the real path of a {@link Path} inside the base directory.
+	 * @param path the {@link Path}, as stored in this list
+	 * @return the real {@link Path} or the {@link Path} appended to the base directory if it cannot be resolved.
+	 */
+	private Path getRealPath(Path path){
+
+		Path pathF = getDirectory().append(path);
+		try {
+			pathF = pathF.realPath();
+		} catch (IOException e) {
+			logger.warn("Caught Exception while resolving real path of file {}", path, e);
+		}
+
+		return pathF;
+	}
 	/**
 	 * Calculates the newer of both {@link FileList}s.
 	 * @param a one {@link FileList}
@@ -518,6 +831,15 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 	public boolean isEmpty(){
 		return super.isEmpty() || size() == 1 && contains(JSON_FILE_NAME);
 	}
+	/**
+	 * Checks if a path is one of the directory data files, the JSON file ({@link #JSON_FILE_NAME}) or the trigram index ({@link TrigramIndex#FILE_NAME}).
+	 * They belong to a single directory and are never synchronised.
+	 * @param relative the {@link Path} relative to the directory
+	 * @return true if the path is a data file
+	 */
+	public static boolean isDataFile(Path relative) {
+		return relative.getPath().equals(JSON_FILE_NAME) || relative.getPath().equals(TrigramIndex.FILE_NAME);
+	}
 	/**
 	 * Checks if a path matches the {@link #ignoreRegex}. Will be run on the
 	 * relative path.
@@ -594,12 +916,56 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 	}
 	/**
 	 * Saves this to a JSON file. Will be in in the base directory specified by {@link #getDirectory()} with the file name specified by {@link #JSON_FILE_NAME}.<br>
-	 * If {@link #jsonOnly} is set, there will be no save.
+	 * If enabled by {@link #setRefreshOnSave(boolean)}, the recorded metadata is refreshed before, as files may have been changed since scanning (e.g. by a sync).<br>
+	 * The data is streamed to the file by {@link #writeJSON(Writer)}.<br>
+	 * If {@link #jsonOnly} is set, there will be no save. I/O errors are logged.
 	 */
 	public void save() {
 		if(!jsonOnly){
 			lastListDate = listDate;
-			new JSONFile(getDirectory().append(JSON_FILE_NAME), getJSON()).write();
+			if(refreshOnSave)
+				refresh();
+			try {
+				jsonFile.write(this);
+			} catch (IOException e) {
+				logger.catching(e);
+			}
+		}
+	}
+	/**
+	 * Sets whether {@link #save()} refreshes the recorded metadata before saving, see {@link #refresh()}.<br>
+	 * Disabled by default, as it reads the attributes of every listed file again.
+	 * @param refreshOnSave whether to refresh on save
+	 */
+	public void setRefreshOnSave(boolean refreshOnSave) {
+		this.refreshOnSave = refreshOnSave;
+	}
+	/**
+	 * 
+	 * @return true, if {@link #save()} refreshes the recorded metadata, otherwise false.
+	 */
+	public boolean isRefreshOnSave() {
+		return refreshOnSave;
+	}
+	/**
+	 * Reads size, modification time and file key of all listed files again. The time the files were listed is kept.<br>
+	 * Files that disappeared keep their entry, but without metadata.<br>
+	 * This stats the whole list, so it costs about as much as listing the directory again.
+	 */
+	public void refresh() {
+
+		for(Map.Entry<Path, FileEntry> entry : map.entrySet()){
+
+			final long listDate = entry.getValue().getListDate();
+
+			try {
+				entry.setValue(new FileEntry(listDate, Files.readAttributes(getFile(entry.getKey()).getFile().toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)));
+			} catch (IOException e) {
+				if(logger.isDebugEnabled())
+					logger.debug("Cannot read attributes of {}: {}", entry.getKey(), e.toString());
+
+				entry.setValue(new FileEntry(listDate));
+			}
 		}
 	}
 	/**
@@ -652,14 +1018,71 @@ public class FileList extends AbstractCollection<Path> implements Set<Path>{
 
 		jsonOnly = true;
 
-		map = json.has(JSON_LIST) ? new JSONMap<>(json.getJSONObject(JSON_LIST), JSONCreators.PATH, JSONCreators.CALENDAR).getMap() : new HashMap<Path, Calendar>();
+		map = json.has(JSON_LIST) ? new JSONMap<>(json.getJSONObject(JSON_LIST), JSONCreators.PATH, JSONCreators.FILE_ENTRY).getMap() : new HashMap<Path, FileEntry>();
 
 		listDate = null;
 
 		lastListDate = json.has(FileList.JSON_LAST_LIST_DATE) ? new JSONCalendar(json.getJSONObject(FileList.JSON_LAST_LIST_DATE)).getCalendar() : null;
 		
+		modifications = json.has(JSON_MODIFICATIONS) ? new JSONMap<>(json.getJSONObject(JSON_MODIFICATIONS), JSONCreators.STRING, JSONCreators.PATH).getMap() : null;
+		
 		symlinks = new ArrayList<>();
 	}
+	/**
+	 * Sets up the {@link FileList} by reading JSON data from a {@link JSONReader}.<br>
+	 * The files and modifications are read entry by entry, without creating a {@link JSONObject} of the whole data.
+	 * @param reader the {@link JSONReader}
+	 * @see #writeJSON(Writer)
+	 */
+	private void setupVars(JSONReader reader){
+
+		logger = LogManager.getLogger();
+
+		directory = new Path("");
+
+		ignoreRegex = "";
+
+		jsonOnly = true;
+
+		map = new HashMap<>();
+
+		listDate = null;
+
+		lastListDate = null;
+
+		modifications = null;
+
+		symlinks = new ArrayList<>();
+
+		reader.beginObject();
+
+		while(reader.hasNext()){
+
+			String key = reader.nextKey();
+
+			if(key.equals(JSON_DIR))
+				directory = JSONCreators.read(JSONCreators.PATH, reader);
+
+			else if(key.equals(JSON_IGNORE_REGEX))
+				ignoreRegex = reader.nextValue().toString();
+
+			else if(key.equals(JSON_LAST_LIST_DATE))
+				lastListDate = JSONCreators.read(JSONCreators.CALENDAR, reader);
+
+			else if(key.equals(JSON_LIST))
+				map = new JSONMap<>(reader, JSONCreators.PATH, JSONCreators.FILE_ENTRY).getMap();
+
+			else if(key.equals(JSON_MODIFICATIONS))
+				modifications = new JSONMap<>(reader, JSONCreators.STRING, JSONCreators.PATH).getMap();
+
+			else
+				reader.nextValue();
+		}
+
+		reader.endObject();
+
+		jsonFile = new JSONFile(getDirectory().append(JSON_FILE_NAME));
+	}
 	/* 
 	 * (non-Javadoc)
 	 * @see java.util.AbstractCollection#size()
@@ -0,0 +1,93 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+/**
+ * A line found by {@link MultiFileGrep#grep(int, int)}, either a matching line or a context line.
+ * @author criztovyl
+ *
+ */
+public class GrepLine {
+
+	private final int number;
+	private final String line;
+	private final boolean match;
+
+	/**
+	 * Creates a new line.
+	 * @param number the line number, starting at 1
+	 * @param line the line content
+	 * @param match whether the line matched or is context
+	 */
+	public GrepLine(int number, String line, boolean match) {
+		this.number = number;
+		this.line = line;
+		this.match = match;
+	}
+
+	/**
+	 * 
+	 * @return the line number, starting at 1
+	 */
+	public int getNumber() {
+		return number;
+	}
+
+	/**
+	 * 
+	 * @return the line content
+	 */
+	public String getLine() {
+		return line;
+	}
+
+	/**
+	 * 
+	 * @return true if the line matched, false if it is a context line
+	 */
+	public boolean isMatch() {
+		return match;
+	}
+
+	/**
+	 * Formats the line like grep does, <code>number:line</code> for matching and <code>number-line</code> for context lines.
+	 */
+	@Override
+	public String toString() {
+		return number + (match ? ":" : "-") + line;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * number + (match ? 1 : 0)) + (line == null ? 0 : line.hashCode());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj)
+			return true;
+
+		if (!(obj instanceof GrepLine))
+			return false;
+
+		final GrepLine other = (GrepLine) obj;
+
+		return number == other.number && match == other.match && (line == null ? other.line == null : line.equals(other.line));
+	}
+}
@@ -0,0 +1,326 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts the literals every match of a regular expression must contain, as example <code>ERROR</code> and <code>failed</code> from
+ * <code>.*ERROR \d+: .*failed.*</code>. A line that does not contain them cannot match, so it can be skipped by a fast substring search
+ * before running the {@link java.util.regex.Matcher}.<br>
+ * Only the top level of the expression is analyzed: groups, classes, optional or repeated parts end a literal.
+ * Expressions with a top level alternation or inline flags (like <code>(?i)</code>) have no mandatory literals.
+ * @author criztovyl
+ *
+ */
+public class LiteralExtractor {
+
+	private final String regex;
+	private final List<String> literals;
+	private final StringBuilder current;
+	private int i;
+
+	/**
+	 * Analyzes a regular expression.
+	 * @param regex the regular expression
+	 */
+	private LiteralExtractor(String regex) {
+		this.regex = regex;
+		literals = new ArrayList<>();
+		current = new StringBuilder();
+	}
+
+	/**
+	 * Extracts the mandatory literals of a regular expression.
+	 * @param regex the regular expression
+	 * @return a {@link List} of the literals in order, may be empty
+	 */
+	public static List<String> extract(String regex) {
+		return new LiteralExtractor(regex).run();
+	}
+
+	/**
+	 * Extracts the longest mandatory literal of a regular expression.
+	 * @param regex the regular expression
+	 * @return the longest literal or <code>null</code> if there is none.
+	 */
+	public static String longest(String regex) {
+
+		String longest = null;
+
+		for (String literal : extract(regex))
+			if (longest == null || literal.length() > longest.length())
+				longest = literal;
+
+		return longest;
+	}
+
+	/**
+	 * Runs the analysis.
+	 * @return the literals
+	 */
+	private List<String> run() {
+
+		while (i < regex.length()) {
+
+			final char c = regex.charAt(i);
+
+			switch (c) {
+
+			case '|': //Top level alternation, nothing is mandatory
+				literals.clear();
+				current.setLength(0);
+				return literals;
+
+			case '(':
+				if (regex.startsWith("(?", i) && !isGroupConstruct()) { //Inline flags change matching
+					literals.clear();
+					current.setLength(0);
+					return literals;
+				}
+				skipGroup();
+				end();
+				skipQuantifier();
+				break;
+
+			case '[':
+				skipClass();
+				end();
+				skipQuantifier();
+				break;
+
+			case '\\':
+				escape();
+				break;
+
+			case '.':
+			case '^':
+			case '$':
+				i++;
+				end();
+				skipQuantifier();
+				break;
+
+			default:
+				i++;
+				literal(c);
+			}
+		}
+
+		end();
+
+		return literals;
+	}
+
+	/**
+	 * Handles an escape sequence at the current position.
+	 */
+	private void escape() {
+
+		if (i + 1 >= regex.length()) {
+			i++;
+			return;
+		}
+
+		final char next = regex.charAt(i + 1);
+
+		//Quoted literal
+		if (next == 'Q') {
+
+			int end = regex.indexOf("\\E", i + 2);
+
+			if (end == -1)
+				end = regex.length();
+
+			final String quoted = regex.substring(i + 2, end);
+			i = Math.min(end + 2, regex.length());
+
+			if (quoted.isEmpty())
+				return;
+
+			current.append(quoted, 0, quoted.length() - 1);
+			literal(quoted.charAt(quoted.length() - 1));
+
+			return;
+		}
+
+		//Escaped metacharacter
+		if (!Character.isLetterOrDigit(next)) {
+			i += 2;
+			literal(next);
+			return;
+		}
+
+		//Classes, boundaries, control characters, back references: end literal
+		i += 2;
+
+		if ((next == 'p' || next == 'P' || next == 'x' || next == 'N') && i < regex.length() && regex.charAt(i) == '{')
+			skipTo('}');
+		else if (next == 'k' && i < regex.length() && regex.charAt(i) == '<')
+			skipTo('>');
+		else if (next == 'x')
+			i = Math.min(i + 2, regex.length());
+		else if (next == 'u')
+			i = Math.min(i + 4, regex.length());
+		else if (next == 'c')
+			i = Math.min(i + 1, regex.length());
+		else if (Character.isDigit(next))
+			while (i < regex.length() && Character.isDigit(regex.charAt(i)))
+				i++;
+
+		end();
+		skipQuantifier();
+	}
+
+	/**
+	 * Adds a literal character, respecting a following quantifier.
+	 * @param c the character
+	 */
+	private void literal(char c) {
+
+		if (i < regex.length()) {
+
+			final char q = regex.charAt(i);
+
+			//Optional, not mandatory
+			if (q == '?' || q == '*' || (q == '{' && regex.startsWith("{0", i))) {
+				end();
+				skipQuantifier();
+				return;
+			}
+
+			//Mandatory at least once, but repeated
+			if (q == '+' || q == '{') {
+				current.append(c);
+				end();
+				skipQuantifier();
+				return;
+			}
+		}
+
+		current.append(c);
+	}
+
+	/**
+	 * Ends the current literal.
+	 */
+	private void end() {
+
+		if (current.length() > 0)
+			literals.add(current.toString());
+
+		current.setLength(0);
+	}
+
+	/**
+	 * Skips a quantifier at the current position, including a lazy or possessive suffix.
+	 */
+	private void skipQuantifier() {
+
+		if (i >= regex.length())
+			return;
+
+		final char q = regex.charAt(i);
+
+		if (q == '?' || q == '*' || q == '+')
+			i++;
+		else if (q == '{')
+			skipTo('}');
+		else
+			return;
+
+		if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+'))
+			i++;
+	}
+
+	/**
+	 * Checks if the group at the current position is a non-capturing group, lookaround or named group.
+	 * @return true if so, false if it sets inline flags
+	 */
+	private boolean isGroupConstruct() {
+		return regex.startsWith("(?:", i) || regex.startsWith("(?=", i) || regex.startsWith("(?!", i) || regex.startsWith("(?<", i) || regex.startsWith("(?>", i);
+	}
+
+	/**
+	 * Skips a group including nested groups, classes and escapes.
+	 */
+	private void skipGroup() {
+
+		int depth = 0;
+
+		while (i < regex.length()) {
+
+			final char c = regex.charAt(i);
+
+			if (c == '\\')
+				i += 2;
+			else if (c == '[')
+				skipClass();
+			else {
+				i++;
+
+				if (c == '(')
+					depth++;
+				else if (c == ')' && --depth == 0)
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Skips a character class including nested classes and escapes.
+	 */
+	private void skipClass() {
+
+		int depth = 0;
+
+		while (i < regex.length()) {
+
+			final char c = regex.charAt(i);
+
+			if (c == '\\')
+				i += 2;
+			else {
+				i++;
+
+				if (c == '[') {
+					depth++;
+
+					//A closing bracket directly after the opening one (or its negation) is a literal
+					if (i < regex.length() && regex.charAt(i) == '^')
+						i++;
+					if (i < regex.length() && regex.charAt(i) == ']')
+						i++;
+				} else if (c == ']' && --depth == 0)
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Skips to after the next occurrence of a character.
+	 * @param c the character
+	 */
+	private void skipTo(char c) {
+
+		final int index = regex.indexOf(c, i);
+
+		i = index == -1 ? regex.length() : index + 1;
+	}
+}
@@ -17,29 +17,84 @@
  */
 package de.joinout.criztovyl.tools.files;
 
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.LineIterator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import de.joinout.criztovyl.tools.file.Path;
 
 /**
+ * Greps lines matching a regular expression from multiple files. A line matches if the whole line matches, as by {@link String#matches(String)}.<br>
+ * In memory-mapped mode (see {@link #setMemoryMapped(boolean)}) files are mapped and simple expressions (see {@link SimplePattern}) are searched directly on the bytes,
+ * only matching lines are decoded. Lines end at line feeds, carriage returns or both, as in line by line mode.<br>
+ * Other expressions are prefiltered by their longest mandatory literal (see {@link LiteralExtractor}), only lines containing it are matched by the {@link Matcher},
+ * in memory-mapped mode they are also searched on bytes first.<br>
+ * Multiple keywords can be searched in one pass over each file by {@link #grep(Collection)}.<br>
+ * With a {@link TrigramIndex} (see {@link #setIndex(TrigramIndex)}) only files that may contain the literal of the expression are read.<br>
+ * Besides all matching lines, only counts ({@link #count()}), only matching files ({@link #getMatchingFiles()}) or matching lines with context ({@link #grep(int, int)})
+ * can be collected, the number of matches per file can be limited by {@link #setMaxCount(int)}. Reading a file stops as soon as the result is complete.<br>
+ * The first block of each file is sniffed (see {@link ContentType}) to handle binary files (see {@link #setBinaryFiles(BinaryFiles)})
+ * and to detect the charset of text files (see {@link #setDetectCharset(boolean)}).
  * @author criztovyl
  * 
  */
 public class MultiFileGrep {
 
+	/**
+	 * How binary files are handled.
+	 */
+	public enum BinaryFiles {
+		/**
+		 * Binary files are skipped.
+		 */
+		SKIP,
+		/**
+		 * Binary files are searched like text files.
+		 */
+		TEXT,
+		/**
+		 * Binary files are searched byte by byte, decoded as ISO-8859-1. Lines are the bytes between line feeds.
+		 */
+		BYTES
+	}
+
+	private static final Charset BYTES = Charset.forName("ISO-8859-1");
+
 	private final Logger logger;
 	private String regex;
 	private List<Path> paths;
+	private boolean memoryMapped;
+	private Charset charset;
+	private TrigramIndex index;
+	private int maxCount;
+	private boolean detectCharset;
+	private BinaryFiles binaryFiles;
 	
 	/**
 	 * Setup with regular expression and path list.
@@ -54,6 +109,10 @@ public class MultiFileGrep {
 		
 		this.paths = paths;
 		
+		charset = Charset.defaultCharset();
+		
+		binaryFiles = BinaryFiles.SKIP;
+		
 	}
 	/**
 	 * Setup with regular expression and some paths.
@@ -78,6 +137,95 @@ public class MultiFileGrep {
 		
 		this.paths = list;
 	}
+	/**
+	 * Sets whether files should be memory-mapped and searched on bytes.<br>
+	 * Is only used if the regular expression is a {@link SimplePattern} or has a mandatory literal (see {@link LiteralExtractor})
+	 * and the charset of the file is ASCII compatible (see {@link #isASCIICompatible(Charset)}) and can encode the literal, otherwise files are read line by line. Files larger than 2 GiB are always read line by line.
+	 * @param memoryMapped whether memory-mapped mode should be used
+	 */
+	public void setMemoryMapped(boolean memoryMapped){
+		this.memoryMapped = memoryMapped;
+	}
+	/**
+	 * 
+	 * @return whether memory-mapped mode is used
+	 * @see #setMemoryMapped(boolean)
+	 */
+	public boolean isMemoryMapped(){
+		return memoryMapped;
+	}
+	/**
+	 * Sets the charset files are decoded with if no other one is detected. Defaults to the platform default charset.
+	 * @param charset the {@link Charset}
+	 */
+	public void setCharset(Charset charset){
+		this.charset = charset;
+	}
+	/**
+	 * 
+	 * @return the charset files are decoded with if no other one is detected
+	 * @see #setCharset(Charset)
+	 */
+	public Charset getCharset(){
+		return charset;
+	}
+	/**
+	 * Sets whether files that are valid UTF-8 should be decoded as UTF-8 instead of the charset set by {@link #setCharset(Charset)}.
+	 * Byte order marks are always respected.
+	 * @param detectCharset whether UTF-8 should be detected
+	 */
+	public void setDetectCharset(boolean detectCharset){
+		this.detectCharset = detectCharset;
+	}
+	/**
+	 * 
+	 * @return whether UTF-8 is detected
+	 * @see #setDetectCharset(boolean)
+	 */
+	public boolean isDetectCharset(){
+		return detectCharset;
+	}
+	/**
+	 * Sets how binary files are handled, defaults to {@link BinaryFiles#SKIP}.<br>
+	 * If binary files are searched as text and no charset is detected, files are not sniffed at all.
+	 * @param binaryFiles the {@link BinaryFiles} mode
+	 */
+	public void setBinaryFiles(BinaryFiles binaryFiles){
+		this.binaryFiles = binaryFiles;
+	}
+	/**
+	 * 
+	 * @return how binary files are handled
+	 * @see #setBinaryFiles(BinaryFiles)
+	 */
+	public BinaryFiles getBinaryFiles(){
+		return binaryFiles;
+	}
+	/**
+	 * Sets a {@link TrigramIndex} to skip files that cannot match.<br>
+	 * Is only used if literals can be extracted from the regular expression (see {@link LiteralExtractor}),
+	 * and only for files the index is current for (see {@link TrigramIndex#isCurrent(Path)}) and that are decoded with the charset of the index
+	 * (see {@link TrigramIndex#getCharset()}), all other files are read.
+	 * @param index the {@link TrigramIndex} or <code>null</code> to read all files
+	 */
+	public void setIndex(TrigramIndex index){
+		this.index = index;
+	}
+	/**
+	 * Sets the maximum number of matching lines per file, reading a file stops after them.
+	 * @param maxCount the maximum number of matches or 0 for no limit
+	 */
+	public void setMaxCount(int maxCount){
+		this.maxCount = maxCount;
+	}
+	/**
+	 * 
+	 * @return the maximum number of matching lines per file, 0 if there is no limit
+	 * @see #setMaxCount(int)
+	 */
+	public int getMaxCount(){
+		return maxCount;
+	}
 	/**
 	 * Greps from all files and returns a {@link Map} with the matched file as a key and the matching lines as value. 
 	 * @return a {@link HashMap} with a {@link Path} as key and a {@link String} {@link List} as value.
@@ -87,23 +235,152 @@ public class MultiFileGrep {
 		//Create map
 		HashMap<Path, ArrayList<String>> map = new HashMap<>();
 
+		//Compile once for all files
+		final Query query = new Query();
+
 		//Iterate over paths
 		for (final Path file : paths) {
 
-			try { //Try reading all lines from file
+			final ArrayList<String> lines = new ArrayList<>();
 
-				//Iterate over lines
-				for (final String line : FileUtils.readLines(file.getFile())){
+			//Add file to map if there are matching lines
+			if(search(file, query, lines, maxCount) > 0)
+				map.put(file, lines);
+		}
+		
+		//Return
+		return map;
+	}
+	/**
+	 * Counts the matching lines of all files, the lines are not collected.
+	 * If a maximum count is set (see {@link #setMaxCount(int)}), counting stops there.
+	 * @return a {@link HashMap} with the matched file as key and the number of matching lines as value.
+	 */
+	public HashMap<Path, Integer> count(){
 
-					//Check if line matches
-					if (line.matches(regex))
+		HashMap<Path, Integer> map = new HashMap<>();
 
-						//Add file to map if not present
-						if(!map.containsKey(file))
-							map.put(file, new ArrayList<String>());
+		final Query query = new Query();
 
-					//Add line
-					map.get(file).add(line);
+		for (final Path file : paths) {
+
+			final int count = search(file, query, null, maxCount);
+
+			if(count > 0)
+				map.put(file, count);
+		}
+
+		return map;
+	}
+	/**
+	 * Looks up the files containing at least one matching line, reading a file stops at the first match.
+	 * @return a {@link List} of the matching files, in order of the paths.
+	 */
+	public List<Path> getMatchingFiles(){
+
+		List<Path> files = new ArrayList<>();
+
+		final Query query = new Query();
+
+		for (final Path file : paths)
+			if(search(file, query, null, 1) > 0)
+				files.add(file);
+
+		return files;
+	}
+	/**
+	 * Greps from all files with context lines and line numbers, like <code>grep -n -B before -A after</code>.<br>
+	 * Files are always read line by line, as every line needs to be counted.
+	 * If a maximum count is set (see {@link #setMaxCount(int)}), reading stops after the context of the last match.
+	 * @param before the number of lines to include before each match
+	 * @param after the number of lines to include after each match
+	 * @return a {@link HashMap} with the matched file as key and the matching and context {@link GrepLine}s in file order as value.
+	 */
+	public HashMap<Path, ArrayList<GrepLine>> grep(int before, int after){
+
+		HashMap<Path, ArrayList<GrepLine>> map = new HashMap<>();
+
+		final Query query = new Query();
+
+		for (final Path file : paths) {
+
+			try {
+
+				final ContentType type = getContentType(file);
+
+				if(type == null || query.skip(file, type))
+					continue;
+
+				final ArrayList<GrepLine> lines = grepContext(file, type, query, before, after);
+
+				if(!lines.isEmpty())
+					map.put(file, lines);
+
+			} catch (final FileNotFoundException | NoSuchFileException e) { // Catch if file not found
+				logger.warn("File {} not found!", file);
+				logger.debug(e);
+			} catch (final IOException e) { // Catch general IOException
+				logger.error("IOException!", e);
+			}
+		}
+
+		return map;
+	}
+	/**
+	 * Greps lines containing any of some keywords from all files, each file is read once. The regular expression is not used.<br>
+	 * The keywords are searched by an {@link AhoCorasick} automaton.
+	 * @param keywords the keywords
+	 * @return a {@link Map} with the keyword as key and a {@link Map} like {@link #grep()} returns as value. Only keywords that were found are included.
+	 */
+	public Map<String, HashMap<Path, ArrayList<String>>> grep(Collection<String> keywords){
+
+		//Create map, keep keyword order
+		Map<String, HashMap<Path, ArrayList<String>>> map = new LinkedHashMap<>();
+
+		final AhoCorasick automaton = new AhoCorasick(keywords);
+		final List<String> ids = automaton.getKeywords();
+		final BitSet found = new BitSet(ids.size());
+
+		//Iterate over paths
+		for (final Path file : paths) {
+
+			try { //Try reading lines from file
+
+				final ContentType type = getContentType(file);
+
+				if(type == null)
+					continue;
+
+				final LineIterator iterator = lineIterator(file, type);
+
+				try {
+
+					//Iterate over lines
+					while(iterator.hasNext()){
+
+						final String line = iterator.nextLine();
+
+						found.clear();
+
+						if(!automaton.find(line, found))
+							continue;
+
+						//Add line for every keyword found
+						for(int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)){
+
+							HashMap<Path, ArrayList<String>> files = map.get(ids.get(id));
+
+							if(files == null)
+								map.put(ids.get(id), files = new HashMap<>());
+
+							if(!files.containsKey(file))
+								files.put(file, new ArrayList<String>());
+
+							files.get(file).add(line);
+						}
+					}
+				} finally {
+					iterator.close();
 				}
 
 			} catch (final FileNotFoundException e) { // Catch if file not found
@@ -112,11 +389,415 @@ public class MultiFileGrep {
 			} catch (final IOException e) { // Catch general IOException
 				logger.error("IOException!", e);
 			}
-
 		}
-		
+
 		//Return
 		return map;
 	}
+	/**
+	 * Looks up the files that may match from the {@link TrigramIndex}.
+	 * @return a {@link Set} of {@link Path}s or <code>null</code> if there is no index or no literal in the regular expression.
+	 */
+	private Set<Path> getCandidates(){
+
+		if(index == null)
+			return null;
+
+		final List<String> literals = LiteralExtractor.extract(regex);
+
+		if(literals.isEmpty())
+			return null;
+
+		//Files need to contain all literals
+		Set<Path> candidates = null;
+
+		for(String literal : literals)
+			if(candidates == null)
+				candidates = index.getCandidates(literal);
+			else
+				candidates.retainAll(index.getCandidates(literal));
+
+		return candidates;
+	}
+	/**
+	 * Searches a file, memory-mapped if possible. {@link IOException}s are logged.
+	 * @param file the file
+	 * @param query the compiled {@link Query}
+	 * @param lines the {@link List} to add the matching lines to or <code>null</code> if they are only counted
+	 * @param max the maximum number of matches or 0 for no limit
+	 * @return the number of matching lines, 0 if the file was skipped or could not be read
+	 */
+	private int search(Path file, Query query, List<String> lines, int max){
+
+		try { //Try reading lines from file
+
+			final ContentType type = getContentType(file);
+
+			//Skip binary or if index knows the file cannot match
+			if(type == null || query.skip(file, type))
+				return 0;
+
+			final byte[] literal = query.mapped && isASCIICompatible(type.getCharset()) && file.getFile().length() <= Integer.MAX_VALUE ? query.getBytes(type.getCharset()) : null;
+
+			return literal != null ? grepMapped(file, type, query, literal, lines, max) : grepLines(file, type, query, lines, max);
+
+		} catch (final FileNotFoundException | NoSuchFileException e) { // Catch if file not found
+			logger.warn("File {} not found!", file);
+			logger.debug(e);
+		} catch (final IOException e) { // Catch general IOException
+			logger.error("IOException!", e);
+		}
+
+		return 0;
+	}
+	/**
+	 * Sniffs the content of a file if needed.
+	 * @param file the file
+	 * @return the {@link ContentType} to read the file with or <code>null</code> if the file should be skipped
+	 * @throws IOException If an I/O error occurs
+	 */
+	private ContentType getContentType(Path file) throws IOException{
+
+		//Nothing to sniff for
+		if(binaryFiles == BinaryFiles.TEXT && !detectCharset)
+			return new ContentType(false, charset, 0);
+
+		final ContentType type = ContentType.sniff(file, charset, detectCharset);
+
+		if(!type.isBinary() || binaryFiles == BinaryFiles.TEXT)
+			return type;
+
+		if(binaryFiles == BinaryFiles.BYTES)
+			return new ContentType(true, BYTES, 0);
+
+		if(logger.isDebugEnabled())
+			logger.debug("Skipping binary file {}", file);
+
+		return null;
+	}
+	/**
+	 * Opens a file for reading lines, after the byte order mark.
+	 * @param file the file
+	 * @param type the {@link ContentType} of the file
+	 * @return a {@link LineIterator}, needs to be closed
+	 * @throws IOException If an I/O error occurs
+	 */
+	private LineIterator lineIterator(Path file, ContentType type) throws IOException{
+
+		final InputStream in = new FileInputStream(file.getFile());
+
+		try {
+
+			//Skip byte order mark
+			for(long skipped = 0; skipped < type.getBOMLength();)
+				skipped += in.skip(type.getBOMLength() - skipped);
+
+			return new LineIterator(new InputStreamReader(in, type.getCharset()));
+
+		} catch (final IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+	/**
+	 * Reads a file line by line and collects the matching lines.
+	 * @param file the file
+	 * @param type the {@link ContentType} of the file
+	 * @param query the compiled {@link Query}
+	 * @param lines the {@link List} to add the matching lines to or <code>null</code> if they are only counted
+	 * @param max the maximum number of matches or 0 for no limit
+	 * @return the number of matching lines
+	 * @throws IOException If an I/O error occurs
+	 */
+	private int grepLines(Path file, ContentType type, Query query, List<String> lines, int max) throws IOException{
+
+		final LineIterator iterator = lineIterator(file, type);
+		final Matcher matcher = query.pattern.matcher("");
+
+		int count = 0;
+
+		try {
+
+			//Iterate over lines until enough matches
+			while(iterator.hasNext() && (max <= 0 || count < max)){
+
+				final String line = iterator.nextLine();
+
+				if(query.matches(line, matcher)){
+
+					count++;
+
+					if(lines != null)
+						lines.add(line);
+				}
+			}
+		} finally {
+			iterator.close();
+		}
+
+		return count;
+	}
+	/**
+	 * Reads a file line by line and collects the matching lines with their context.
+	 * @param file the file
+	 * @param type the {@link ContentType} of the file
+	 * @param query the compiled {@link Query}
+	 * @param before the number of lines before each match
+	 * @param after the number of lines after each match
+	 * @return the matching and context lines
+	 * @throws IOException If an I/O error occurs
+	 */
+	private ArrayList<GrepLine> grepContext(Path file, ContentType type, Query query, int before, int after) throws IOException{
+
+		final ArrayList<GrepLine> lines = new ArrayList<>();
+		final LineIterator iterator = lineIterator(file, type);
+		final Matcher matcher = query.pattern.matcher("");
+
+		//Last lines that may become context before a match
+		final ArrayDeque<GrepLine> previous = new ArrayDeque<>();
+
+		int number = 0, count = 0, remaining = 0;
+
+		try {
+
+			while(iterator.hasNext()){
+
+				final boolean full = maxCount > 0 && count >= maxCount;
+
+				//Stop after context of the last match
+				if(full && remaining == 0)
+					break;
+
+				final String line = iterator.nextLine();
+				number++;
+
+				if(!full && query.matches(line, matcher)){
+
+					count++;
+
+					lines.addAll(previous);
+					previous.clear();
+
+					lines.add(new GrepLine(number, line, true));
+
+					remaining = after;
+				}
+				else if(remaining > 0){
+
+					lines.add(new GrepLine(number, line, false));
+
+					remaining--;
+				}
+				else if(before > 0){
+
+					if(previous.size() == before)
+						previous.removeFirst();
+
+					previous.addLast(new GrepLine(number, line, false));
+				}
+			}
+		} finally {
+			iterator.close();
+		}
+
+		return lines;
+	}
+	/**
+	 * Memory-maps a file and searches a literal on the bytes. Only lines containing the literal are decoded.<br>
+	 * A {@link SimplePattern} is checked on the bytes and only decoded if the lines are collected,
+	 * otherwise the decoded line is matched by the regular expression.
+	 * @param file the file, not larger than {@link Integer#MAX_VALUE} bytes
+	 * @param type the {@link ContentType} of the file, with an ASCII compatible charset
+	 * @param query the compiled {@link Query}
+	 * @param literal the literal to search, encoded with the charset of the file
+	 * @param lines the {@link List} to add the matching lines to or <code>null</code> if they are only counted
+	 * @param max the maximum number of matches or 0 for no limit
+	 * @return the number of matching lines
+	 * @throws IOException If an I/O error occurs
+	 */
+	private int grepMapped(Path file, ContentType type, Query query, byte[] literal, List<String> lines, int max) throws IOException{
+
+		final SimplePattern simple = query.simple;
+		final Charset charset = type.getCharset();
+		final int bom = type.getBOMLength();
+
+		int count = 0;
+
+		try (FileChannel channel = FileChannel.open(file.getFile().toPath(), StandardOpenOption.READ)) {
+
+			final int limit = (int) channel.size();
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, limit);
+			final ByteSearcher searcher = new ByteSearcher(literal);
+			final Matcher matcher = query.pattern.matcher("");
+
+			int from = bom;
+
+			while(from < limit && (max <= 0 || count < max)){
+
+				final int found = searcher.indexOf(buffer, from, limit);
+
+				if(found == -1)
+					break;
+
+				//Locate line around the occurrence
+				int start = found, end = found + searcher.length();
+
+				while(start > bom && !isLineBreak(buffer.get(start - 1)))
+					start--;
+
+				while(end < limit && !isLineBreak(buffer.get(end)))
+					end++;
+
+				//Next search after the line terminator, carriage return and line feed are one
+				from = end + 1 < limit && buffer.get(end) == '\r' && buffer.get(end + 1) == '\n' ? end + 2 : end + 1;
+
+				//Full expression on candidate line
+				if(simple == null){
+
+					final String line = decode(buffer, start, end, charset);
+
+					if(matcher.reset(line).matches()){
+
+						count++;
+
+						if(lines != null)
+							lines.add(line);
+					}
+
+					continue;
+				}
+
+				if(simple.isAnchoredStart() && !searcher.isAt(buffer, start))
+					continue;
+
+				if(simple.isAnchoredEnd() && (end - start < searcher.length() || !searcher.isAt(buffer, end - searcher.length())))
+					continue;
+
+				if(simple.isAnchoredStart() && simple.isAnchoredEnd() && end - start != searcher.length())
+					continue;
+
+				count++;
+
+				if(lines != null)
+					lines.add(decode(buffer, start, end, charset));
+			}
+		}
+
+		return count;
+	}
+	/**
+	 * 
+	 * @param b a byte of an ASCII compatible charset
+	 * @return true if the byte is a line feed or a carriage return, like {@link java.io.BufferedReader#readLine()} splits lines
+	 */
+	private static boolean isLineBreak(byte b){
+		return b == '\n' || b == '\r';
+	}
+	/**
+	 * Decodes a range of a {@link ByteBuffer}.
+	 * @param buffer the {@link ByteBuffer}
+	 * @param start the first index
+	 * @param end the index after the last one
+	 * @param charset the {@link Charset}
+	 * @return the decoded {@link String}
+	 */
+	private static String decode(ByteBuffer buffer, int start, int end, Charset charset){
+
+		final ByteBuffer range = buffer.duplicate();
+		range.limit(end);
+		range.position(start);
+
+		return charset.decode(range).toString();
+	}
+	/**
+	 * The regular expression compiled once for all files of one search.
+	 * @author criztovyl
+	 *
+	 */
+	private class Query {
+
+		private final Pattern pattern;
+		private final SimplePattern simple;
+		private final String literal;
+		private final boolean mapped;
+		private final Set<Path> candidates;
+		private final Map<Charset, byte[]> encoded;
+
+		/**
+		 * Compiles the current regular expression and looks up the candidates from the index.
+		 */
+		private Query(){
+			pattern = Pattern.compile(regex);
+			simple = SimplePattern.parse(regex);
+			literal = LiteralExtractor.longest(regex);
+			mapped = memoryMapped && (simple != null || literal != null);
+			candidates = getCandidates();
+			encoded = new HashMap<>();
+		}
+
+		/**
+		 * Encodes the literal searched on the bytes. Characters the charset cannot encode are not replaced, as a replacement would match other characters.
+		 * @param charset the {@link Charset} of the file
+		 * @return the encoded literal or <code>null</code> if it cannot be searched on the bytes and the file needs to be read line by line
+		 */
+		private byte[] getBytes(Charset charset){
+
+			if(encoded.containsKey(charset))
+				return encoded.get(charset);
+
+			final String text = simple != null ? simple.getLiteral() : literal;
+			byte[] bytes = null;
+
+			//Lines never contain line breaks
+			if(text.indexOf('\n') == -1 && text.indexOf('\r') == -1)
+				try {
+
+					final ByteBuffer buffer = charset.newEncoder().encode(CharBuffer.wrap(text));
+
+					bytes = new byte[buffer.remaining()];
+					buffer.get(bytes);
+
+				} catch (final CharacterCodingException e) { //Not encodable, read line by line
+					bytes = null;
+				}
+
+			encoded.put(charset, bytes);
+
+			return bytes;
+		}
+
+		/**
+		 * Checks the index for a file. The index can only be used if the file is encoded with the charset of the index,
+		 * as the literal is looked up encoded with that charset.
+		 * @param file the file
+		 * @param type the {@link ContentType} of the file
+		 * @return true if the index knows the file cannot match
+		 */
+		private boolean skip(Path file, ContentType type){
+			return candidates != null && !candidates.contains(file) && type.getCharset().equals(index.getCharset()) && index.isCurrent(file);
+		}
+
+		/**
+		 * Checks if a line contains the literal and matches.
+		 * @param line the line
+		 * @param matcher a {@link Matcher} of the pattern
+		 * @return true if the line matches
+		 */
+		private boolean matches(String line, Matcher matcher){
+			return (literal == null || line.indexOf(literal) != -1) && matcher.reset(line).matches();
+		}
+	}
+	/**
+	 * Checks if ASCII characters, especially line feeds, are encoded by the charset as single bytes that never occur inside other characters.
+	 * Only then a literal can be searched on the bytes.
+	 * @param charset the {@link Charset}
+	 * @return true if the charset is UTF-8, US-ASCII, ISO-8859-* or windows-125*, otherwise false.
+	 */
+	public static boolean isASCIICompatible(Charset charset){
+
+		final String name = charset.name();
+
+		return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+	}
 
 }
@@ -0,0 +1,156 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+/**
+ * A regular expression that only matches lines containing, starting with, ending with or being equal to a literal,
+ * like <code>.*error.*</code>, <code>INFO.*</code> or <code>done</code>.<br>
+ * Such expressions can be searched directly on bytes, see {@link ByteSearcher}.
+ * @author criztovyl
+ *
+ */
+public class SimplePattern {
+
+	private static final String METACHARS = "\\^$.|?*+()[]{}";
+
+	private final String literal;
+	private final boolean anchoredStart, anchoredEnd;
+
+	/**
+	 * Creates a new simple pattern.
+	 * @param literal the literal
+	 * @param anchoredStart whether a line needs to start with the literal
+	 * @param anchoredEnd whether a line needs to end with the literal
+	 */
+	public SimplePattern(String literal, boolean anchoredStart, boolean anchoredEnd) {
+		this.literal = literal;
+		this.anchoredStart = anchoredStart;
+		this.anchoredEnd = anchoredEnd;
+	}
+
+	/**
+	 * Analyzes a regular expression that is matched against whole lines (as {@link String#matches(String)} does).
+	 * @param regex the regular expression
+	 * @return a {@link SimplePattern} or <code>null</code> if the expression is not a literal with optional <code>.*</code> at start or end.
+	 */
+	public static SimplePattern parse(String regex) {
+
+		boolean anchoredStart = true, anchoredEnd = true;
+
+		if (regex.startsWith(".*")) {
+			regex = regex.substring(2);
+			anchoredStart = false;
+		}
+
+		//Only if the dot is not escaped
+		if (regex.endsWith(".*") && !isEscaped(regex, regex.length() - 2)) {
+			regex = regex.substring(0, regex.length() - 2);
+			anchoredEnd = false;
+		}
+
+		final String literal = unescape(regex);
+
+		return literal == null ? null : new SimplePattern(literal, anchoredStart, anchoredEnd);
+	}
+
+	/**
+	 * Converts a part of a regular expression to the literal it matches.
+	 * @param regex the part of the regular expression
+	 * @return the literal or <code>null</code> if the part contains unescaped metacharacters or escapes like <code>\d</code>.
+	 */
+	public static String unescape(String regex) {
+
+		final StringBuilder builder = new StringBuilder(regex.length());
+
+		for (int i = 0; i < regex.length(); i++) {
+
+			final char c = regex.charAt(i);
+
+			if (c == '\\') {
+
+				//Escaped non-alphanumeric characters are literals, others are classes like \d
+				if (i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1)))
+					builder.append(regex.charAt(++i));
+				else
+					return null;
+			} else if (METACHARS.indexOf(c) != -1)
+				return null;
+			else
+				builder.append(c);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Checks if a character of a regular expression is escaped by an odd number of backslashes.
+	 * @param regex the regular expression
+	 * @param index the index of the character
+	 * @return true if escaped, otherwise false
+	 */
+	private static boolean isEscaped(String regex, int index) {
+
+		int backslashes = 0;
+
+		for (int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; i--)
+			backslashes++;
+
+		return backslashes % 2 == 1;
+	}
+
+	/**
+	 * 
+	 * @return the literal
+	 */
+	public String getLiteral() {
+		return literal;
+	}
+
+	/**
+	 * 
+	 * @return whether a line needs to start with the literal
+	 */
+	public boolean isAnchoredStart() {
+		return anchoredStart;
+	}
+
+	/**
+	 * 
+	 * @return whether a line needs to end with the literal
+	 */
+	public boolean isAnchoredEnd() {
+		return anchoredEnd;
+	}
+
+	/**
+	 * Checks a line, equal to {@link String#matches(String)} with the original expression.
+	 * @param line the line
+	 * @return true if the line matches, otherwise false
+	 */
+	public boolean matches(String line) {
+
+		if (anchoredStart && anchoredEnd)
+			return line.equals(literal);
+		else if (anchoredStart)
+			return line.startsWith(literal);
+		else if (anchoredEnd)
+			return line.endsWith(literal);
+		else
+			return line.contains(literal);
+	}
+}
@@ -0,0 +1,592 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.files;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.joinout.criztovyl.tools.file.Path;
+import de.joinout.criztovyl.tools.json.codec.BinaryCodecs;
+
+/**
+ * An index of all byte trigrams (three consecutive bytes) of the files in a directory, to find the files that may contain a literal
+ * without reading all files.<br>
+ * A file can only contain a literal if it contains all trigrams of the literal, see {@link #getCandidates(String)}.
+ * Literals shorter than three bytes match all files.<br>
+ * The index is built from a {@link FileList} and updated from the recorded size and modification time of its {@link FileEntry}s (see {@link #update(FileList)})
+ * or from a change set (see {@link #update(Collection, Collection)}), only new and changed files are read.
+ * It is saved to the file {@link #FILE_NAME} inside the directory by {@link #save()}.<br>
+ * Removed files are only marked, their trigrams are cleaned up when there are more removed than indexed files.<br>
+ * Binary files (see {@link ContentType#isBinary()}) are recorded without trigrams, so they are not read again until they change,
+ * but the index is never current for them (see {@link #isCurrent(Path)}).
+ * @author criztovyl
+ * @see MultiFileGrep#setIndex(TrigramIndex)
+ *
+ */
+public class TrigramIndex {
+
+	/**
+	 * The file name for the index file.
+	 */
+	public static final String FILE_NAME = ".dirSync.trigrams";
+
+	private static final int VERSION = 1;
+
+	private final Logger logger;
+
+	private final Path directory;
+	private final Charset charset;
+
+	//Files by ID, null if free
+	private final List<Path> files;
+	private final List<FileEntry> entries;
+	private final Map<Path, Integer> ids;
+
+	//Trigram as key, file IDs as value
+	private final Map<Integer, BitSet> postings;
+
+	private final BitSet live, free, binary;
+	private int dead;
+
+	private BitSet seen;
+
+	/**
+	 * Creates a new index upon a {@link FileList}, all files are read.
+	 * @param list the {@link FileList}
+	 */
+	public TrigramIndex(FileList list) {
+		this(list.getDirectory(), Charset.defaultCharset());
+
+		update(list);
+	}
+
+	/**
+	 * Loads an index from the index file inside a directory. If there is no index file, the index is empty.
+	 * @param directory the directory
+	 * @throws IOException If an I/O error occurs or the index file is malformed
+	 */
+	public TrigramIndex(Path directory) throws IOException {
+		this(directory, Charset.defaultCharset());
+
+		final File file = directory.append(FILE_NAME).getFile();
+
+		if (file.exists())
+			load(file);
+	}
+
+	/**
+	 * Creates an empty index.
+	 * @param directory the directory
+	 * @param charset the {@link Charset} literals are encoded with for lookups
+	 */
+	private TrigramIndex(Path directory, Charset charset) {
+
+		logger = LogManager.getLogger();
+
+		this.directory = directory;
+		this.charset = charset;
+
+		files = new ArrayList<>();
+		entries = new ArrayList<>();
+		ids = new HashMap<>();
+		postings = new HashMap<>();
+		live = new BitSet();
+		free = new BitSet();
+		binary = new BitSet();
+	}
+
+	/**
+	 * Updates the index from a {@link FileList} of the same directory. Files that are new or changed in size or modification time are (re-)read,
+	 * files that are not in the list any more are removed.
+	 * @param list the {@link FileList}
+	 */
+	public void update(FileList list) {
+
+		final Set<Path> present = new HashSet<>();
+
+		for (Path path : list) {
+
+			final Path relative = path.relativeTo(list.getDirectory());
+
+			if (isIgnored(relative))
+				continue;
+
+			FileEntry entry = list.getEntry(path);
+
+			//Entry from an older list, ask file system
+			if (entry == null || !entry.hasMetadata())
+				entry = getEntry(relative);
+
+			if (entry == null || entry.isDirectory())
+				continue;
+
+			present.add(relative);
+
+			final Integer id = ids.get(relative);
+
+			if (id == null || isChanged(entries.get(id), entry)) {
+
+				if (id != null)
+					remove(relative);
+
+				index(relative, entry);
+			}
+		}
+
+		for (Iterator<Map.Entry<Path, Integer>> i = ids.entrySet().iterator(); i.hasNext();) {
+
+			final Map.Entry<Path, Integer> indexed = i.next();
+
+			if (!present.contains(indexed.getKey())) {
+				i.remove();
+				removeID(indexed.getValue());
+			}
+		}
+
+		compactIfNeeded();
+	}
+
+	/**
+	 * Updates the index from a change set, as example from {@link de.joinout.criztovyl.tools.directory.DirectoryChanges}.
+	 * @param changed the new and changed files, relative to the directory
+	 * @param deleted the deleted files, relative to the directory
+	 */
+	public void update(Collection<Path> changed, Collection<Path> deleted) {
+
+		for (Path relative : deleted)
+			remove(relative);
+
+		for (Path relative : changed) {
+
+			remove(relative);
+
+			final FileEntry entry = getEntry(relative);
+
+			if (entry != null && !entry.isDirectory() && !isIgnored(relative))
+				index(relative, entry);
+		}
+
+		compactIfNeeded();
+	}
+
+	/**
+	 * Locates the files that may contain a literal.
+	 * @param literal the literal
+	 * @return a {@link Set} of the absolute {@link Path}s of the candidate files
+	 */
+	public Set<Path> getCandidates(String literal) {
+
+		final byte[] bytes = literal.getBytes(charset);
+		final BitSet candidates = (BitSet) live.clone();
+		candidates.andNot(binary);
+
+		for (int i = 2; i < bytes.length && !candidates.isEmpty(); i++) {
+
+			final BitSet posting = postings.get(trigram(bytes[i - 2], bytes[i - 1], bytes[i]));
+
+			if (posting == null)
+				candidates.clear();
+			else
+				candidates.and(posting);
+		}
+
+		final Set<Path> set = new HashSet<>();
+
+		for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1))
+			set.add(directory.append(files.get(id)));
+
+		return set;
+	}
+
+	/**
+	 * Checks if the index is current for a file, i.e. the file is indexed as text and its size and modification time did not change since.
+	 * @param file the absolute {@link Path}
+	 * @return true if the index can be used for the file, otherwise false
+	 */
+	public boolean isCurrent(Path file) {
+
+		if (!file.isInDirectory(directory))
+			return false;
+
+		final Integer id = ids.get(file.relativeTo(directory));
+
+		return id != null && !binary.get(id) && file.getFile().length() == entries.get(id).getSize() && file.getFile().lastModified() == entries.get(id).getLastModified();
+	}
+
+	/**
+	 * 
+	 * @return the absolute {@link Path}s of all indexed files, binary files are not included
+	 */
+	public List<Path> getFiles() {
+
+		final List<Path> list = new ArrayList<>();
+
+		for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1))
+			if (!binary.get(id))
+				list.add(directory.append(files.get(id)));
+
+		return list;
+	}
+
+	/**
+	 * 
+	 * @return the directory
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * The index holds the raw bytes of the files, so it can only answer lookups for files encoded with this charset.
+	 * @return the {@link Charset} literals are encoded with for lookups
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Saves the index to the file {@link #FILE_NAME} inside the directory.
+	 * Removed files are cleaned up before. The file is written to a temporary file first and then moved.
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void save() throws IOException {
+
+		compact();
+
+		final java.nio.file.Path target = directory.append(FILE_NAME).getFile().getAbsoluteFile().toPath();
+		final java.nio.file.Path tmp = Files.createTempFile(target.getParent(), FILE_NAME, ".tmp");
+
+		try {
+
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp.toFile())));
+
+			try {
+
+				BinaryCodecs.writeVarInt(VERSION, out);
+				BinaryCodecs.STRING.write(charset.name(), out);
+
+				//File table
+				BinaryCodecs.writeVarInt(files.size(), out);
+				for (int id = 0; id < files.size(); id++) {
+
+					//Written as boolean by older versions, so binary files are marked as 2
+					out.writeByte(live.get(id) ? binary.get(id) ? 2 : 1 : 0);
+
+					if (live.get(id)) {
+						BinaryCodecs.PATH.write(files.get(id), out);
+						BinaryCodecs.writeVarLong(entries.get(id).getSize(), out);
+						BinaryCodecs.writeVarLong(BinaryCodecs.zigZag(entries.get(id).getLastModified()), out);
+					}
+				}
+
+				//Postings, IDs ascending as differences
+				BinaryCodecs.writeVarInt(postings.size(), out);
+				for (Map.Entry<Integer, BitSet> posting : postings.entrySet()) {
+
+					BinaryCodecs.writeVarInt(posting.getKey(), out);
+					BinaryCodecs.writeVarInt(posting.getValue().cardinality(), out);
+
+					for (int id = posting.getValue().nextSetBit(0), previous = 0; id >= 0; previous = id, id = posting.getValue().nextSetBit(id + 1))
+						BinaryCodecs.writeVarInt(id - previous, out);
+				}
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Loads the index file.
+	 * @param file the index file
+	 * @throws IOException If an I/O error occurs or the file is malformed
+	 */
+	private void load(File file) throws IOException {
+
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+		try {
+
+			final int version = BinaryCodecs.readVarInt(in);
+
+			if (version != VERSION)
+				throw new IOException("Unsupported trigram index version " + version);
+
+			if (!BinaryCodecs.STRING.read(in).equals(charset.name()))
+				//Trigrams of another charset are useless for lookups, index is empty and will be rebuilt on update
+				return;
+
+			final int size = BinaryCodecs.readLength(in);
+
+			for (int id = 0; id < size; id++) {
+
+				final byte flag = in.readByte();
+
+				if (flag != 0) {
+
+					final Path relative = BinaryCodecs.PATH.read(in);
+					final long length = BinaryCodecs.readVarLong(in);
+					final long lastModified = BinaryCodecs.unZigZag(BinaryCodecs.readVarLong(in));
+
+					files.add(relative);
+					entries.add(new FileEntry(0, length, lastModified, false, null));
+					ids.put(relative, id);
+					live.set(id);
+					binary.set(id, flag == 2);
+				} else {
+					files.add(null);
+					entries.add(null);
+					free.set(id);
+				}
+			}
+
+			final int count = BinaryCodecs.readLength(in);
+
+			for (int i = 0; i < count; i++) {
+
+				final int trigram = BinaryCodecs.readVarInt(in);
+				final int cardinality = BinaryCodecs.readLength(in);
+				final BitSet posting = new BitSet(size);
+
+				for (int j = 0, id = 0; j < cardinality; j++) {
+					id += BinaryCodecs.readVarInt(in);
+
+					if (id < 0 || id >= size)
+						throw new IOException("Invalid file id " + id + " in trigram index");
+
+					posting.set(id);
+				}
+
+				postings.put(trigram, posting);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a file and adds its trigrams. If the file cannot be read, it is not indexed.<br>
+	 * The first block is sniffed, a binary file is added without trigrams.
+	 * @param relative the {@link Path} relative to the directory
+	 * @param entry the size and modification time of the file
+	 */
+	private void index(Path relative, FileEntry entry) {
+
+		if (seen == null)
+			seen = new BitSet(1 << 24);
+
+		boolean isBinary = false;
+
+		try (InputStream in = new FileInputStream(directory.append(relative).getFile())) {
+
+			final byte[] buffer = new byte[64 * 1024];
+			int trigram = 0, count = 0, read;
+
+			while ((read = in.read(buffer)) != -1) {
+
+				//First block
+				if (count == 0 && ContentType.sniff(buffer, Math.min(read, ContentType.BLOCK_SIZE), charset, false).isBinary()) {
+					isBinary = true;
+					seen.clear();
+					break;
+				}
+
+				for (int i = 0; i < read; i++) {
+
+					trigram = ((trigram << 8) | (buffer[i] & 0xFF)) & 0xFFFFFF;
+
+					if (++count >= 3)
+						seen.set(trigram);
+				}
+			}
+
+		} catch (IOException e) {
+
+			if (logger.isWarnEnabled())
+				logger.warn("Cannot index {}: {}", relative, e.toString());
+
+			seen.clear();
+			return;
+		}
+
+		//Take a free ID or a new one
+		int id = free.nextSetBit(0);
+
+		if (id == -1) {
+			id = files.size();
+			files.add(relative);
+			entries.add(entry);
+		} else {
+			free.clear(id);
+			files.set(id, relative);
+			entries.set(id, entry);
+		}
+
+		ids.put(relative, id);
+		live.set(id);
+		binary.set(id, isBinary);
+
+		for (int trigram = seen.nextSetBit(0); trigram >= 0; trigram = seen.nextSetBit(trigram + 1)) {
+
+			BitSet posting = postings.get(trigram);
+
+			if (posting == null)
+				postings.put(trigram, posting = new BitSet());
+
+			posting.set(id);
+		}
+
+		seen.clear();
+	}
+
+	/**
+	 * Removes a file, if indexed.
+	 * @param relative the {@link Path} relative to the directory
+	 */
+	private void remove(Path relative) {
+
+		final Integer id = ids.remove(relative);
+
+		if (id != null)
+			removeID(id);
+	}
+
+	/**
+	 * Marks an ID as removed, its trigrams stay until {@link #compact()}.
+	 * @param id the ID
+	 */
+	private void removeID(int id) {
+
+		live.clear(id);
+		binary.clear(id);
+		files.set(id, null);
+		entries.set(id, null);
+		dead++;
+	}
+
+	/**
+	 * Runs {@link #compact()} if there are more removed than indexed files.
+	 */
+	private void compactIfNeeded() {
+
+		if (dead > live.cardinality())
+			compact();
+	}
+
+	/**
+	 * Removes the IDs of removed files from all trigrams, the IDs can be reused afterwards.
+	 */
+	private void compact() {
+
+		if (dead == 0)
+			return;
+
+		final BitSet removed = new BitSet(files.size());
+		removed.set(0, files.size());
+		removed.andNot(live);
+		removed.andNot(free);
+
+		for (Iterator<BitSet> i = postings.values().iterator(); i.hasNext();) {
+
+			final BitSet posting = i.next();
+
+			posting.andNot(removed);
+
+			if (posting.isEmpty())
+				i.remove();
+		}
+
+		free.or(removed);
+		dead = 0;
+	}
+
+	/**
+	 * Reads size and modification time of a file.
+	 * @param relative the {@link Path} relative to the directory
+	 * @return a {@link FileEntry} or <code>null</code> if the file does not exist
+	 */
+	private FileEntry getEntry(Path relative) {
+
+		final File file = directory.append(relative).getFile();
+
+		if (!file.exists())
+			return null;
+
+		return new FileEntry(System.currentTimeMillis(), file.length(), file.lastModified(), file.isDirectory(), null);
+	}
+
+	/**
+	 * Checks whether a file changed.
+	 * @param indexed the entry when indexed
+	 * @param current the current entry
+	 * @return true if size or modification time differ
+	 */
+	private static boolean isChanged(FileEntry indexed, FileEntry current) {
+		return indexed.getSize() != current.getSize() || indexed.getLastModified() != current.getLastModified();
+	}
+
+	/**
+	 * Checks if a file belongs to the directory data, like the {@link FileList} JSON file or the index itself.
+	 * @param relative the {@link Path} relative to the directory
+	 * @return true if the file should not be indexed
+	 */
+	private static boolean isIgnored(Path relative) {
+		return relative.getPath().equals(FileList.JSON_FILE_NAME) || relative.getPath().equals(FILE_NAME);
+	}
+
+	/**
+	 * Packs three bytes to a trigram.
+	 * @param a the first byte
+	 * @param b the second byte
+	 * @param c the third byte
+	 * @return the trigram
+	 */
+	private static int trigram(byte a, byte b, byte c) {
+		return ((a & 0xFF) << 16) | ((b & 0xFF) << 8) | (c & 0xFF);
+	}
+}
@@ -22,7 +22,8 @@ import java.util.Calendar;
 import org.json.JSONObject;
 
 /**
- * A class that holds a {@link Calendar} in an {@link JSONObject}.
+ * A class that holds a {@link Calendar} in an {@link JSONObject}.<br>
+ * Internally only the milliseconds since epoch are stored, the {@link Calendar} and the {@link JSONObject} are created on first request.
  * @author criztovyl
  * 
  */
@@ -33,7 +34,9 @@ public class JSONCalendar{
 	 */
 	public static final String JSON_EPOCH_MILLIS = "epochMillis";
 
-	private final Calendar calendar;
+	private final long epochMillis;
+
+	private Calendar calendar;
 
 	private JSONObject json;
 
@@ -45,8 +48,7 @@ public class JSONCalendar{
 	 */
 	public JSONCalendar(Calendar calendar) {
 		this.calendar = calendar;
-
-		createJson();
+		this.epochMillis = calendar.getTimeInMillis();
 	}
 
 	/**
@@ -57,15 +59,10 @@ public class JSONCalendar{
 	 */
 	public JSONCalendar(JSONObject json) {
 
-		// Create calendar and clear
-		calendar = Calendar.getInstance();
-		calendar.clear();
-
 		// Receive
-		calendar.setTimeInMillis(json.getLong(JSONCalendar.JSON_EPOCH_MILLIS));
+		epochMillis = json.getLong(JSONCalendar.JSON_EPOCH_MILLIS);
 
-		// Create JSON
-		createJson();
+		this.json = json;
 	}
 
 	/**
@@ -75,37 +72,34 @@ public class JSONCalendar{
 	 *            the long
 	 */
 	public JSONCalendar(Long lonq) {
-
-		// Create calendar and clear
-		calendar = Calendar.getInstance();
-		calendar.clear();
-
-		// Set
-		calendar.setTimeInMillis(lonq);
-
-		// Create JSON
-		createJson();
+		epochMillis = lonq;
 	}
 
 	/**
-	 * Creates the JSON Object
+	 * 
+	 * @return the calendar
 	 */
-	private void createJson() {
+	public Calendar getCalendar() {
 
-		// Create object
-		json = new JSONObject();
+		if (calendar == null) {
 
-		// Store
-		json.put(JSONCalendar.JSON_EPOCH_MILLIS, calendar.getTimeInMillis());
+			// Create calendar and clear
+			calendar = Calendar.getInstance();
+			calendar.clear();
 
+			// Set
+			calendar.setTimeInMillis(epochMillis);
+		}
+
+		return calendar;
 	}
 
 	/**
 	 * 
-	 * @return the calendar
+	 * @return the milliseconds since epoch
 	 */
-	public Calendar getCalendar() {
-		return calendar;
+	public long getEpochMillis() {
+		return epochMillis;
 	}
 
 	/**
@@ -114,6 +108,16 @@ public class JSONCalendar{
 	 * @return the calendar as a JSON object.
 	 */
 	public JSONObject getJSON() {
+
+		if (json == null) {
+
+			// Create object
+			json = new JSONObject();
+
+			// Store
+			json.put(JSONCalendar.JSON_EPOCH_MILLIS, epochMillis);
+		}
+
 		return json;
 	}
 
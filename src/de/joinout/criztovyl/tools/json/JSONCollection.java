@@ -17,25 +17,38 @@
  */
 package de.joinout.criztovyl.tools.json;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
+import de.joinout.criztovyl.tools.json.codec.BinaryCodec;
+import de.joinout.criztovyl.tools.json.codec.BinaryCodecs;
 import de.joinout.criztovyl.tools.json.creator.JSONCreator;
+import de.joinout.criztovyl.tools.json.creator.JSONCreators;
 import de.joinout.criztovyl.tools.json.creator.JSONable;
-import de.joinout.criztovyl.tools.json.iterator.JSONObjectArrayIterator;
-import de.joinout.criztovyl.tools.json.iterator.JSONStringArrayIterator;
 
 /**
- * An abstract helper for JSON and {@link Collection}s.
+ * An abstract helper for JSON and {@link Collection}s.<br>
+ * If created from a {@link Collection}, the JSON data is created on first use only. It also can be written directly to a {@link Writer} by {@link #writeJSON(Writer)}.<br>
+ * The collection is not copied, the JSON data reflects it as it is on the first call of {@link #getJSON()} and is kept from then on.
+ * Until then {@link #writeJSON(Writer)} writes the current collection; {@link #writeBinary(DataOutput)} always does. Do not change the collection while the data is created or written.<br>
+ * The collection also can be stored in a compact binary form by {@link #writeBinary(DataOutput)}, if there is a {@link BinaryCodec} for the {@link JSONCreator} (see {@link BinaryCodecs#getCodec(JSONCreator)}).
  * @author Christoph "criztovyl" Schulz
  *
  */
-public abstract class JSONCollection<T> implements JSONable<Collection<T>> {
+public abstract class JSONCollection<T> implements JSONable<Collection<T>>, JSONStreamable {
 	
 	private JSONCreator<T> creator;
 	private JSONObject json;
+	private Collection<T> coll;
 	
 	/**
 	 * Sets up a new JSON collection helper.
@@ -53,12 +66,9 @@ public abstract class JSONCollection<T> implements JSONable<Collection<T>> {
 	public JSONCollection(Collection<T> coll, JSONCreator<T> creator){
 		this(creator);
 		
-		JSONArray array = new JSONArray();
-		
-		for(T t : coll)
-			array.put(creator.canBeString() ? creator.string(t) : creator.getJSON(t));
-		
-		getJSON().put(getKey(), array);
+		//JSON data is created on first use
+		this.coll = coll;
+		this.json = null;
 	}
 	/**
 	 * Sets up a new JSON collection helper.
@@ -69,6 +79,69 @@ public abstract class JSONCollection<T> implements JSONable<Collection<T>> {
 		this(creator);
 		this.json = json;
 	}
+	/**
+	 * Sets up a new JSON collection helper by reading the next value of a {@link JSONReader}.<br>
+	 * The elements are read one by one, the {@link JSONObject} is only created if requested by {@link #getJSON()}.
+	 * @param reader the {@link JSONReader}
+	 * @param creator the {@link JSONCreator} for the generic class.
+	 */
+	public JSONCollection(JSONReader reader, JSONCreator<T> creator){
+		this(creator);
+		
+		coll = new ArrayList<>();
+		json = null;
+		
+		reader.beginObject();
+		while(reader.hasNext())
+			
+			if(reader.nextKey().equals(getKey())){
+				reader.beginArray();
+				while(reader.hasNext())
+					coll.add(JSONCreators.read(creator, reader));
+				reader.endArray();
+			}
+			else
+				reader.nextValue();
+		
+		reader.endObject();
+	}
+	/**
+	 * Sets up a new JSON collection helper from binary data written by {@link #writeBinary(DataOutput)}.
+	 * @param in the {@link DataInput}
+	 * @param creator the {@link JSONCreator} for the generic class.
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for the {@link JSONCreator}
+	 */
+	public JSONCollection(DataInput in, JSONCreator<T> creator) throws IOException, IllegalArgumentException{
+		this(creator);
+		
+		BinaryCodec<T> codec = BinaryCodecs.getCodec(creator);
+		
+		int size = BinaryCodecs.readLength(in);
+		
+		coll = new ArrayList<>(BinaryCodecs.initialCapacity(size));
+		json = null;
+		
+		for(int i = 0; i < size; i++)
+			coll.add(codec.read(in));
+	}
+	/**
+	 * Writes the collection in binary form, the size followed by the elements.
+	 * @param out the {@link DataOutput}
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for the {@link JSONCreator}
+	 */
+	public void writeBinary(DataOutput out) throws IOException, IllegalArgumentException{
+		
+		BinaryCodec<T> codec = BinaryCodecs.getCodec(creator);
+		
+		Collection<T> elements = getCollection();
+		
+		BinaryCodecs.writeVarInt(elements.size(), out);
+		
+		for(T t : elements)
+			codec.write(t, out);
+	}
 	/**
 	 * The {@link JSONCreator} for the generic class.
 	 * @return a {@link JSONCreator}
@@ -77,13 +150,59 @@ public abstract class JSONCollection<T> implements JSONable<Collection<T>> {
 		return creator;
 	}
 	/**
-	 * The JSON data.
+	 * The JSON data. If created from a {@link Collection}, it is created from the collection as it is on the first call and kept.
 	 * @return a {@link JSONObject};
 	 */
 	public JSONObject getJSON(){
+		
+		if(json == null){
+			
+			JSONArray array = new JSONArray();
+			
+			for(T t : coll)
+				array.put(JSONCreators.toValue(creator, t));
+			
+			json = new JSONObject();
+			json.put(getKey(), array);
+		}
+		
 		return json;
 	}
 	
+	/**
+	 * Writes the JSON data to a {@link Writer}. The elements are written one by one, without creating a {@link JSONObject}.
+	 * @param writer the {@link Writer}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void writeJSON(Writer writer) throws IOException{
+		try {
+			writeJSON(new JSONWriter(writer));
+		} catch (JSONException e){
+			throw new IOException(e);
+		}
+	}
+	
+	/**
+	 * Writes the JSON data as next value of a {@link JSONWriter}.
+	 * @param writer the {@link JSONWriter}
+	 * @see #writeJSON(Writer)
+	 */
+	public void writeJSON(JSONWriter writer){
+		
+		//Already created or loaded, write as it is
+		if(json != null){
+			writer.value(json);
+			return;
+		}
+		
+		writer.object().key(getKey()).array();
+		
+		for(T t : coll)
+			JSONCreators.write(creator, t, writer);
+		
+		writer.endArray().endObject();
+	}
+	
 	/**
 	 * The collection.
 	 * @return a {@link Collection}
@@ -97,14 +216,17 @@ public abstract class JSONCollection<T> implements JSONable<Collection<T>> {
 	 */
 	public Collection<T> getCollection(Collection<T> collection){
 		
-		JSONArray array = json.getJSONArray(getKey());
+		//Not created from JSON data, take elements directly
+		if(json == null){
+			collection.addAll(coll);
+			return collection;
+		}
+		
+		JSONArray array = getJSON().getJSONArray(getKey());
 		
-		if(creator.canBeString())
-			for(String str : new JSONStringArrayIterator(array))
-				collection.add(creator.fromString(str));
-		else
-			for(JSONObject jsonObject : new JSONObjectArrayIterator(array))
-				collection.add(creator.fromJSON(jsonObject));
+		//Values as written by getJSON() or writeJSON(JSONWriter)
+		for(int i = 0; i < array.length(); i++)
+			collection.add(JSONCreators.fromValue(creator, array.get(i)));
 		
 		return collection;
 	}
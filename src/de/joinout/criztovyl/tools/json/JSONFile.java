@@ -17,9 +17,19 @@
  */
 package de.joinout.criztovyl.tools.json;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.Level;
@@ -32,7 +42,10 @@ import de.joinout.criztovyl.tools.file.Path;
 
 /**
  * This class represents a file that can contain JSON data and helps read and
- * write it.
+ * write it.<br>
+ * The file is read on first use only, the parsed {@link JSONObject} or {@link JSONArray} is kept until the data is changed by {@link #setData(String)} or the file is written.
+ * The parsed data is shared, changes to it are seen by following calls of {@link #getJSONObject()} or {@link #getJSONArray()}, but are not written; use {@link #setData(JSONObject)} for that.
+ * Large files can be read without loading them into a {@link String} by {@link #getJSONReader()}.
  * 
  * @author criztovyl
  * 
@@ -45,8 +58,12 @@ public class JSONFile {
 
 	private String data;
 
+	private JSONObject object;
+
+	private JSONArray array;
+
 	/**
-	 * Loads JSON data from a file.
+	 * Loads JSON data from a file. The file is read on first use.
 	 * 
 	 * @param path the file path.
 	 */
@@ -56,6 +73,18 @@ public class JSONFile {
 
 		this.path = path;
 
+		data = null;
+
+	}
+
+	/**
+	 * Reads the data from the file, if not done yet.
+	 */
+	private void load() {
+
+		if (data != null)
+			return;
+
 		data = new JSONObject().toString();
 
 		try {
@@ -70,7 +99,6 @@ public class JSONFile {
 		} catch (final IOException e) {
 			logger.catching(e);
 		}
-
 	}
 
 	/**
@@ -110,25 +138,52 @@ public class JSONFile {
 	 * @return the raw JSON data string
 	 */
 	public String getData() {
+		load();
 		return data;
 	}
 
 	/**
-	 * 
-	 * @return the {@link JSONObject} represented by the given data.
+	 * The parsed data. The data is only parsed once, so changes to the returned {@link JSONArray} are visible to following calls until the data is changed or written.
+	 * The changes are not written to the file, see {@link #setData(JSONArray)}.
+	 * @return the {@link JSONArray} represented by the given data.
 	 */
 	public JSONArray getJSONArray() {
-		return new JSONArray(data);
+
+		if (array == null)
+			array = new JSONArray(getData());
+
+		return array;
 	}
 
 	/**
-	 * 
+	 * The parsed data. The data is only parsed once, so changes to the returned {@link JSONObject} are visible to following calls until the data is changed or written.
+	 * The changes are not written to the file, see {@link #setData(JSONObject)}.
 	 * @return the {@link JSONObject} represented by the given data.
 	 */
 	public JSONObject getJSONObject() {
-		final JSONObject json = new JSONObject(data);
 
-		return json;
+		if (object == null)
+			object = new JSONObject(getData());
+
+		return object;
+	}
+
+	/**
+	 * Creates a {@link JSONReader} for the data. If the data was not read yet, the file is read directly by the {@link JSONReader}.<br>
+	 * If the file does not exist, an empty object is read.
+	 * @return a {@link JSONReader}, has to be closed.
+	 */
+	public JSONReader getJSONReader() {
+
+		if (data == null)
+			try {
+				return new JSONReader(new BufferedReader(new FileReader(path.getFile())));
+			} catch (final FileNotFoundException e) {
+				logger.warn("File {} not found! (Maybe file wasn't created yet)", path.getPath());
+				logger.catching(Level.WARN, e);
+			}
+
+		return new JSONReader(getData());
 	}
 
 	public Runnable runnableWrite() {
@@ -142,41 +197,106 @@ public class JSONFile {
 	}
 
 	/**
-	 * Writes the JSON data to the file.
+	 * Writes the JSON data to the file.<br>
+	 * The data is written to a temporary file next to the file first, which then atomically replaces the file.
+	 * So the file always contains either the old or the new data. I/O errors are logged, use {@link #write(JSONStreamable)} to handle them.
 	 */
 	public void write() {
 		
-
+		final String data = getData();
+		
 		try {
-			//Create file if not exists
-			path.touch();
+			write(new JSONStreamable() {
+
+				public void writeJSON(Writer writer) throws IOException {
+					writer.write(data);
+				}
+			});
 			
+			//Written data is the current data
+			setData(data);
+		} catch (final IOException e) {
+			logger.catching(e);
+		}
+	}
+
+	/**
+	 * Writes JSON data directly to the file, without creating the data {@link String}. The data of this {@link JSONFile} is read from the file again on next use.<br>
+	 * The file is replaced atomically as by {@link #write()}. The temporary file gets the permissions of the file if it exists,
+	 * else the default permissions for new files, and is synced to the disk before it replaces the file.
+	 * @param json the {@link JSONStreamable}
+	 * @throws IOException If an I/O error occurs, the file is not changed then.
+	 */
+	public void write(JSONStreamable json) throws IOException {
+		
+		java.nio.file.Path target = path.getFile().getAbsoluteFile().toPath();
+		java.nio.file.Path tmp = null;
+
+		try {
+			//Create parent directories if not exist
+			Files.createDirectories(target.getParent());
+
+			//Create temporary file in same directory, so it can be moved atomically.
+			//Created by java.io.File, as java.nio.file.Files would restrict the permissions to the owner.
+			tmp = File.createTempFile(target.getFileName().toString(), ".tmp", target.getParent().toFile()).toPath();
+
+			//Keep permissions of the file
+			if (Files.exists(target) && Files.getFileStore(tmp).supportsFileAttributeView(PosixFileAttributeView.class))
+				Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(target));
+
 			//Create writer
-			final FileWriter fw = new FileWriter(path.getFile());
+			final FileOutputStream out = new FileOutputStream(tmp.toFile());
+			final Writer fw = new BufferedWriter(new OutputStreamWriter(out));
 
 			//Write
-			fw.write(data);
+			try {
+				json.writeJSON(fw);
+
+				//Flush and sync, so the data is on disk before the file is replaced
+				fw.flush();
+				out.getFD().sync();
+			} finally {
+				//Close
+				fw.close();
+			}
 
-			//Flush 'n' close
-			fw.flush();
-			fw.close();
+			//Replace file
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			//Cached data is outdated
+			setData((String) null);
 		} catch (final IOException e) {
-			logger.catching(e);
+
+			//Do not leave the temporary file behind
+			try {
+				if (tmp != null)
+					Files.deleteIfExists(tmp);
+			} catch (final IOException e1) {
+				logger.catching(Level.DEBUG, e1);
+			}
+
+			throw e;
 		}
 
 	}
 	
 	public void setData(String str){
 		data = str;
+		object = null;
+		array = null;
 	}
 	
 	public JSONFile setData(JSONObject json){
-		data = json.toString();
+		setData(json.toString());
 		
 		return this;
 	}
 	public JSONFile setData(JSONArray json){
-		data = json.toString();
+		setData(json.toString());
 		
 		return this;
 	}
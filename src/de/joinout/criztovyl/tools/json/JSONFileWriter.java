@@ -0,0 +1,225 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import de.joinout.criztovyl.tools.file.Path;
+
+/**
+ * Writes a {@link JSONFile} asynchronously on a background thread.<br>
+ * Rapid successive {@link #setData(String)}/{@link #write()} calls are coalesced into a single write of the latest data.
+ * Use {@link #flush()} to wait until all data is on disk and {@link #close()} when done, the background thread is a daemon thread and pending data is lost if the program exits before.<br>
+ * The file is replaced atomically, see {@link JSONFile#write(JSONStreamable)}. A failed write is reported by the next {@link #flush()} or {@link #close()}.<br>
+ * Nothing is written before data was set, so an existing file is not replaced by a {@link #write()} alone. After {@link #close()}, setting data or writing throws an {@link IllegalStateException}.
+ * 
+ * @author criztovyl
+ * 
+ */
+public class JSONFileWriter implements Closeable {
+
+	private final JSONFile file;
+
+	private final ScheduledExecutorService executor;
+
+	private final long delay;
+
+	private final Callable<Void> writeTask;
+
+	private String data;
+
+	private boolean scheduled;
+
+	private Future<?> pending;
+
+	private boolean closed;
+
+	/**
+	 * Creates a new writer that writes as soon as possible.
+	 * 
+	 * @param path the file path
+	 */
+	public JSONFileWriter(Path path) {
+		this(path, 0);
+	}
+
+	/**
+	 * Creates a new writer that waits the given time before writing, so more calls can be coalesced.
+	 * 
+	 * @param path the file path
+	 * @param delay the delay in milliseconds
+	 */
+	public JSONFileWriter(Path path, long delay) {
+
+		file = new JSONFile(path, new JSONObject());
+
+		this.delay = delay;
+
+		executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "JSONFileWriter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		writeTask = new Callable<Void>() {
+
+			public Void call() throws IOException {
+
+				final String data;
+
+				//Take latest data, following calls schedule a new write
+				synchronized (JSONFileWriter.this) {
+					data = JSONFileWriter.this.data;
+					scheduled = false;
+				}
+
+				file.setData(data);
+				file.write(new JSONStreamable() {
+
+					public void writeJSON(Writer writer) throws IOException {
+						writer.write(data);
+					}
+				});
+
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Sets the data and schedules a write.
+	 * @param str the raw JSON data string
+	 * @return this, for chaining.
+	 * @throws IllegalStateException if the writer is closed
+	 */
+	public synchronized JSONFileWriter setData(String str) {
+		checkOpen();
+		data = str;
+		write();
+
+		return this;
+	}
+
+	/**
+	 * Sets the data and schedules a write.
+	 * @param json the {@link JSONObject}
+	 * @return this, for chaining.
+	 */
+	public JSONFileWriter setData(JSONObject json) {
+		return setData(json.toString());
+	}
+
+	/**
+	 * Sets the data and schedules a write.
+	 * @param json the {@link JSONArray}
+	 * @return this, for chaining.
+	 */
+	public JSONFileWriter setData(JSONArray json) {
+		return setData(json.toString());
+	}
+
+	/**
+	 * Schedules a write of the current data, if there is no write scheduled yet.<br>
+	 * Does nothing if no data was set yet.
+	 * @throws IllegalStateException if the writer is closed
+	 */
+	public synchronized void write() {
+
+		checkOpen();
+
+		//Nothing to write, keep the file as it is
+		if (data == null)
+			return;
+
+		if (!scheduled) {
+			scheduled = true;
+			pending = executor.schedule(writeTask, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Waits until all data set before is written. A delayed write is started immediately.
+	 * @throws IOException If interrupted while waiting or if the write failed
+	 */
+	public void flush() throws IOException {
+
+		Future<?> future;
+
+		synchronized (this) {
+
+			//Start delayed write now
+			if (pending != null && pending.cancel(false))
+				pending = executor.submit(writeTask);
+
+			future = pending;
+		}
+
+		if (future == null)
+			return;
+
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for write.", e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Flushes and stops the background thread. Following calls of {@link #setData(String)} or {@link #write()} throw an {@link IllegalStateException}.
+	 * @throws IOException If interrupted while waiting or if the write failed
+	 * @see #flush()
+	 */
+	public void close() throws IOException {
+
+		synchronized (this) {
+			closed = true;
+		}
+
+		try {
+			flush();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Throws an {@link IllegalStateException} if the writer is closed.
+	 */
+	private void checkOpen() {
+		if (closed)
+			throw new IllegalStateException("JSONFileWriter is closed.");
+	}
+}
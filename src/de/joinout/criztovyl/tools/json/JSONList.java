@@ -17,6 +17,8 @@
  */
 package de.joinout.criztovyl.tools.json;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -49,6 +51,24 @@ public class JSONList<T> extends JSONCollection<T>{
 	public JSONList(JSONObject json, JSONCreator<T> creator){
 		super(json, creator);
 	}
+	/**
+	 * Sets up a JSON helper for a list by reading it from a {@link JSONReader}.
+	 * @param reader the {@link JSONReader}
+	 * @param creator the creator for the generic class.
+	 */
+	public JSONList(JSONReader reader, JSONCreator<T> creator){
+		super(reader, creator);
+	}
+	/**
+	 * Sets up a JSON helper for a list from binary data.
+	 * @param in the {@link DataInput}
+	 * @param creator the creator for the generic class.
+	 * @throws IOException If an I/O error occurs
+	 * @see JSONCollection#JSONCollection(DataInput, JSONCreator)
+	 */
+	public JSONList(DataInput in, JSONCreator<T> creator) throws IOException{
+		super(in, creator);
+	}
 	/**
 	 * Sets up a JSON helper for a list.
 	 * @param creator the creator for the generic class.
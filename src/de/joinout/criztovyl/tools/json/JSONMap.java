@@ -17,25 +17,42 @@
  */
 package de.joinout.criztovyl.tools.json;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
+import de.joinout.criztovyl.tools.json.codec.BinaryCodec;
+import de.joinout.criztovyl.tools.json.codec.BinaryCodecs;
 import de.joinout.criztovyl.tools.json.creator.JSONCreator;
+import de.joinout.criztovyl.tools.json.creator.JSONCreators;
 import de.joinout.criztovyl.tools.json.iterator.JSONStringArrayIterator;
 
 /**
  * A class that transforms a {@link Map} to JSON.<br>
  * If keys and/or values can be represented by a {@link String}, they will be stored as such.<br>
  * If key can't be a string, the map will be split of into a key and values array where the indexes are synchronised.<br>
+ * If created from a {@link Map}, the JSON data is created on first use only. It also can be written directly to a {@link Writer} by {@link #writeJSON(Writer)}.<br>
+ * The map is not copied, the JSON data reflects it as it is on the first call of {@link #getJSON()} and is kept from then on.
+ * Until then {@link #writeJSON(Writer)} writes the current map; {@link #writeBinary(DataOutput)} always does. Do not change the map while the data is created or written.<br>
+ * The map also can be stored in a compact binary form by {@link #writeBinary(DataOutput)}, if there are {@link BinaryCodec}s for the {@link JSONCreator}s (see {@link BinaryCodecs#getCodec(JSONCreator)}).<br>
  * @author criztovyl
  *
  */
-public class JSONMap<K, V>{
+public class JSONMap<K, V> implements JSONStreamable{
 
 	private Map<K, V> map;
+	private JSONCreator<K> keyJ;
+	private JSONCreator<V> valJ;
 	private static String KEYS = "keys";
 	private static String VALUES = "values";
 	private JSONObject json;
@@ -48,36 +65,11 @@ public class JSONMap<K, V>{
 	 */
 	public JSONMap(Map<K, V> map, JSONCreator<K> keyJ, JSONCreator<V> valJ){
 
-		//Set up variables
+		//Set up variables, JSON data is created on first use
 		this.map = map;
-		JSONObject json = new JSONObject();
-		JSONArray keys = new JSONArray();
-		JSONArray values = new JSONArray();
-
-		//Check whether key can be string
-		if(keyJ.canBeString()){ //If so iterate over key set and put key as string.
-
-			for(K k : map.keySet())
-				//Put value also as key, if can be one
-				json.put(keyJ.string(k), valJ.canBeString() ? valJ.string(map.get(k)) : valJ.getJSON(map.get(k)));
-
-		}
-		else{ // If not, iterate and put the JSON-representation.
-
-			for(K k : map.keySet()){
-
-				keys.put(keyJ.getJSON(k));
-				
-				//If value can be string, put as such
-				values.put(valJ.canBeString() ? valJ.string(map.get(k)) : valJ.getJSON(map.get(k)));
-
-			}
-
-			json.put(KEYS, keys);
-			json.put(VALUES, values);
-		}
-
-		this.json = json;
+		this.keyJ = keyJ;
+		this.valJ = valJ;
+		this.json = null;
 	}
 
 	/**
@@ -90,6 +82,8 @@ public class JSONMap<K, V>{
 
 		//Set up variables
 		this.json = json;
+		this.keyJ = keyJ;
+		this.valJ = valJ;
 		map = new HashMap<>();
 
 		//Check whether key can be string
@@ -99,8 +93,8 @@ public class JSONMap<K, V>{
 			//If map is empty, names will be null so create an empty array if names are null.
 			for(String key : new JSONStringArrayIterator(json.names() == null ? new JSONArray() : json.names()))
 				
-				//If value also can be a string, but as one
-				map.put(keyJ.fromString(key), valJ.canBeString() ? valJ.fromString(json.getString(key)) : valJ.fromJSON(json.getJSONObject(key)));
+				//Value as string or JSON data, depending on what was stored
+				map.put(keyJ.fromString(key), JSONCreators.fromValue(valJ, json.get(key)));
 		}
 		else{ //If not, put the JSON-representation
 
@@ -111,19 +105,209 @@ public class JSONMap<K, V>{
 			//Iterate over key array and take values from the arrays
 			for(int i = 0; i < keys.length(); i++)
 				
-				//If value can be a string, load as one
-				map.put(keyJ.fromJSON(keys.getJSONObject(i)), valJ.canBeString() ? valJ.fromString(values.getString(i)) : valJ.fromJSON(values.getJSONObject(i)));
+				//Value as string or JSON data, depending on what was stored
+				map.put(JSONCreators.fromValue(keyJ, keys.get(i)), JSONCreators.fromValue(valJ, values.get(i)));
 		}
 	}
 
 	/**
-	 * 
+	 * Creates a new {@link JSONMap} by reading the next value of a {@link JSONReader}.<br>
+	 * The entries are read one by one into the map, the {@link JSONObject} is only created if requested by {@link #getJSON()}.
+	 * @param reader the {@link JSONReader}
+	 * @param keyJ the {@link JSONCreator} for the keys
+	 * @param valJ the {@link JSONCreator} for the values
+	 */
+	public JSONMap(JSONReader reader, JSONCreator<K> keyJ, JSONCreator<V> valJ){
+
+		//Set up variables
+		this.json = null;
+		this.keyJ = keyJ;
+		this.valJ = valJ;
+		map = new HashMap<>();
+
+		reader.beginObject();
+
+		//Check whether key can be string
+		if(keyJ.canBeString()) //If so, read key value pairs
+
+			while(reader.hasNext()){
+				K k = keyJ.fromString(reader.nextKey());
+				map.put(k, JSONCreators.read(valJ, reader));
+			}
+
+		else{ //If not, read keys and values arrays
+
+			List<K> keys = new ArrayList<>();
+			List<V> values = new ArrayList<>();
+
+			while(reader.hasNext()){
+
+				String key = reader.nextKey();
+
+				if(key.equals(KEYS)){
+					reader.beginArray();
+					while(reader.hasNext())
+						keys.add(JSONCreators.read(keyJ, reader));
+					reader.endArray();
+				}
+				else if(key.equals(VALUES)){
+					reader.beginArray();
+					while(reader.hasNext())
+						values.add(JSONCreators.read(valJ, reader));
+					reader.endArray();
+				}
+				else
+					reader.nextValue();
+			}
+
+			//Indexes are synchronised
+			for(int i = 0; i < keys.size(); i++)
+				map.put(keys.get(i), values.get(i));
+		}
+
+		reader.endObject();
+	}
+
+	/**
+	 * Creates a new {@link JSONMap} from binary data written by {@link #writeBinary(DataOutput)}.
+	 * @param in the {@link DataInput}
+	 * @param keyJ the {@link JSONCreator} for the keys
+	 * @param valJ the {@link JSONCreator} for the values
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for a {@link JSONCreator}
+	 */
+	public JSONMap(DataInput in, JSONCreator<K> keyJ, JSONCreator<V> valJ) throws IOException, IllegalArgumentException{
+
+		//Set up variables
+		this.json = null;
+		this.keyJ = keyJ;
+		this.valJ = valJ;
+
+		BinaryCodec<K> keyC = BinaryCodecs.getCodec(keyJ);
+		BinaryCodec<V> valC = BinaryCodecs.getCodec(valJ);
+
+		//Read size and entries
+		int size = BinaryCodecs.readLength(in);
+		map = new HashMap<>(BinaryCodecs.initialCapacity(size) * 4 / 3 + 1);
+
+		for(int i = 0; i < size; i++){
+			K k = keyC.read(in);
+			map.put(k, valC.read(in));
+		}
+	}
+
+	/**
+	 * Writes the map in binary form, the size followed by the keys and values.
+	 * @param out the {@link DataOutput}
+	 * @throws IOException If an I/O error occurs
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for a {@link JSONCreator}
+	 * @see #JSONMap(DataInput, JSONCreator, JSONCreator)
+	 */
+	public void writeBinary(DataOutput out) throws IOException, IllegalArgumentException{
+
+		BinaryCodec<K> keyC = BinaryCodecs.getCodec(keyJ);
+		BinaryCodec<V> valC = BinaryCodecs.getCodec(valJ);
+
+		BinaryCodecs.writeVarInt(map.size(), out);
+
+		for(Map.Entry<K, V> entry : map.entrySet()){
+			keyC.write(entry.getKey(), out);
+			valC.write(entry.getValue(), out);
+		}
+	}
+
+	/**
+	 * The JSON data. If created from a {@link Map}, it is created from the map as it is on the first call and kept.
 	 * @return the corresponding {@link JSONObject}
 	 */
 	public JSONObject getJSON(){
+
+		if(json == null){
+
+			JSONObject json = new JSONObject();
+			JSONArray keys = new JSONArray();
+			JSONArray values = new JSONArray();
+
+			//Check whether key can be string
+			if(keyJ.canBeString()){ //If so iterate over key set and put key as string.
+
+				for(K k : map.keySet())
+					//Put value in the same form as writeJSON
+					json.put(keyJ.string(k), JSONCreators.toValue(valJ, map.get(k)));
+
+			}
+			else{ // If not, iterate and put the JSON-representation.
+
+				for(K k : map.keySet()){
+
+					//Put key and value in the same form as writeJSON
+					keys.put(JSONCreators.toValue(keyJ, k));
+					values.put(JSONCreators.toValue(valJ, map.get(k)));
+
+				}
+
+				json.put(KEYS, keys);
+				json.put(VALUES, values);
+			}
+
+			this.json = json;
+		}
+
 		return json;
 	}
 
+	/**
+	 * Writes the JSON data to a {@link Writer}. The entries are written one by one, without creating a {@link JSONObject}.
+	 * @param writer the {@link Writer}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void writeJSON(Writer writer) throws IOException{
+		try {
+			writeJSON(new JSONWriter(writer));
+		} catch (JSONException e){
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Writes the JSON data as next value of a {@link JSONWriter}.
+	 * @param writer the {@link JSONWriter}
+	 * @see #writeJSON(Writer)
+	 */
+	public void writeJSON(JSONWriter writer){
+
+		//Already created or loaded, write as it is
+		if(json != null){
+			writer.value(json);
+			return;
+		}
+
+		writer.object();
+
+		if(keyJ.canBeString())
+
+			for(Map.Entry<K, V> entry : map.entrySet()){
+				writer.key(keyJ.string(entry.getKey()));
+				JSONCreators.write(valJ, entry.getValue(), writer);
+			}
+
+		else{
+
+			//Keys and values are written in the same order, as both iterate over the map.
+			writer.key(KEYS).array();
+			for(K k : map.keySet())
+				JSONCreators.write(keyJ, k, writer);
+			writer.endArray();
+
+			writer.key(VALUES).array();
+			for(V v : map.values())
+				JSONCreators.write(valJ, v, writer);
+			writer.endArray();
+		}
+
+		writer.endObject();
+	}
+
 	/**
 	 * 
 	 * @return the corresponding {@link Map}
@@ -0,0 +1,180 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+/**
+ * A pull reader for JSON data, based on {@link JSONTokener}.<br>
+ * Objects and arrays are read token by token, so large data can be loaded without creating a {@link org.json.JSONObject} of the whole data.<br>
+ * Example for reading an object:
+ * 
+ * <pre>
+ * <code>
+ * reader.beginObject();
+ * while(reader.hasNext()){
+ *     String key = reader.nextKey();
+ *     Object value = reader.nextValue();
+ * }
+ * reader.endObject();
+ * </code>
+ * </pre>
+ * 
+ * Errors are thrown as {@link JSONException}s, as by {@link JSONTokener}.
+ * 
+ * @author criztovyl
+ * 
+ */
+public class JSONReader implements Closeable {
+
+	private final Reader reader;
+
+	private final JSONTokener tokener;
+
+	/**
+	 * Creates a new reader upon a {@link Reader}.
+	 * 
+	 * @param reader the {@link Reader}
+	 */
+	public JSONReader(Reader reader) {
+		this.reader = reader;
+		tokener = new JSONTokener(reader);
+	}
+
+	/**
+	 * Creates a new reader upon a JSON {@link String}.
+	 * 
+	 * @param json the JSON data
+	 */
+	public JSONReader(String json) {
+		this(new StringReader(json));
+	}
+
+	/**
+	 * Reads the begin of an object.
+	 */
+	public void beginObject() {
+		expect('{');
+	}
+
+	/**
+	 * Reads the end of an object.
+	 */
+	public void endObject() {
+		expect('}');
+	}
+
+	/**
+	 * Reads the begin of an array.
+	 */
+	public void beginArray() {
+		expect('[');
+	}
+
+	/**
+	 * Reads the end of an array.
+	 */
+	public void endArray() {
+		expect(']');
+	}
+
+	/**
+	 * Checks whether the current object or array has another element. Reads the separating comma.
+	 * 
+	 * @return true if there is another element, false if the object or array ends.
+	 */
+	public boolean hasNext() {
+
+		char c = tokener.nextClean();
+
+		if (c == ',')
+			return true;
+
+		tokener.back();
+		return c != '}' && c != ']';
+	}
+
+	/**
+	 * Reads the next key of an object, including the following colon.
+	 * 
+	 * @return the key
+	 */
+	public String nextKey() {
+
+		char c = tokener.nextClean();
+
+		if (c != '"' && c != '\'')
+			throw tokener.syntaxError("A JSONObject text key must begin with a quote");
+
+		String key = tokener.nextString(c);
+
+		expect(':');
+
+		return key;
+	}
+
+	/**
+	 * Reads the next value. Objects and arrays are read completely as {@link org.json.JSONObject} or {@link org.json.JSONArray}.
+	 * 
+	 * @return a {@link String}, {@link Number}, {@link Boolean}, {@link org.json.JSONObject}, {@link org.json.JSONArray} or {@link org.json.JSONObject#NULL}
+	 * @see JSONTokener#nextValue()
+	 */
+	public Object nextValue() {
+		return tokener.nextValue();
+	}
+
+	/**
+	 * Looks at the next token without reading it.
+	 * 
+	 * @return the next non-whitespace character
+	 */
+	public char peek() {
+
+		char c = tokener.nextClean();
+		tokener.back();
+
+		return c;
+	}
+
+	/**
+	 * Reads the next character and checks whether it is the expected one.
+	 * 
+	 * @param expected the expected character
+	 */
+	private void expect(char expected) {
+
+		char c = tokener.nextClean();
+
+		if (c != expected)
+			throw tokener.syntaxError("Expected '" + expected + "' but was '" + c + "'");
+	}
+
+	/**
+	 * Closes the underlying {@link Reader}.
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -17,6 +17,8 @@
  */
 package de.joinout.criztovyl.tools.json;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -57,6 +59,24 @@ public class JSONSet<T> extends JSONCollection<T> {
 	public JSONSet(JSONObject json, JSONCreator<T> creator){
 		super(json, creator);
 	}
+	/**
+	 * Sets up a new JSON helper for sets by reading it from a {@link JSONReader}.
+	 * @param reader the {@link JSONReader}
+	 * @param creator the {@link JSONCreator} for the generic class
+	 */
+	public JSONSet(JSONReader reader, JSONCreator<T> creator){
+		super(reader, creator);
+	}
+	/**
+	 * Sets up a new JSON helper for sets from binary data.
+	 * @param in the {@link DataInput}
+	 * @param creator the {@link JSONCreator} for the generic class
+	 * @throws IOException If an I/O error occurs
+	 * @see JSONCollection#JSONCollection(DataInput, JSONCreator)
+	 */
+	public JSONSet(DataInput in, JSONCreator<T> creator) throws IOException{
+		super(in, creator);
+	}
 	/**
 	 * The set.
 	 * @return a {@link Set}.
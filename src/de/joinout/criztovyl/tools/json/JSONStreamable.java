@@ -0,0 +1,36 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * An object that can write its JSON data directly to a {@link Writer}, without creating the whole {@link org.json.JSONObject} and its {@link String} in memory.
+ * @author criztovyl
+ *
+ */
+public interface JSONStreamable {
+
+	/**
+	 * Writes the JSON data.
+	 * @param writer the {@link Writer}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void writeJSON(Writer writer) throws IOException;
+}
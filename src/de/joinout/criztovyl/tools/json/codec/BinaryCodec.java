@@ -0,0 +1,55 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.json.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The binary counterpart of a {@link de.joinout.criztovyl.tools.json.creator.JSONCreator}, writes and reads objects in a compact binary form.<br>
+ * Some codecs are already implemented as static fields in {@link BinaryCodecs}.<br>
+ * Used by the binary forms of {@link de.joinout.criztovyl.tools.json.JSONMap}, {@link de.joinout.criztovyl.tools.json.JSONCollection} and {@link de.joinout.criztovyl.tools.connector.Connector}
+ * for callers that manage their own streams; {@link de.joinout.criztovyl.tools.json.JSONFile} and {@link de.joinout.criztovyl.tools.files.FileList} are persisted as JSON only.
+ * @author criztovyl
+ *
+ */
+public interface BinaryCodec<T> {
+
+	/**
+	 * Writes an object.
+	 * @param t the object
+	 * @param out the {@link DataOutput}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void write(T t, DataOutput out) throws IOException;
+
+	/**
+	 * Reads an object written by {@link #write(Object, DataOutput)}.
+	 * @param in the {@link DataInput}
+	 * @return the object
+	 * @throws IOException If an I/O error occurs
+	 */
+	public T read(DataInput in) throws IOException;
+
+	/**
+	 * 
+	 * @return the {@link Class} that is supported by this codec
+	 */
+	public Class<?> getCodecClass();
+}
@@ -0,0 +1,378 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.json.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.joinout.criztovyl.tools.file.Path;
+import de.joinout.criztovyl.tools.files.FileEntry;
+import de.joinout.criztovyl.tools.json.creator.JSONCreator;
+import de.joinout.criztovyl.tools.json.creator.JSONCreators;
+
+/**
+ * A class with some {@link BinaryCodec}s inside, one for each {@link JSONCreator} from {@link JSONCreators}.<br>
+ * Integers are written as variable length integers (small numbers take less bytes), strings are written as length-prefixed UTF-8.<br>
+ * Lengths are validated while reading, see {@link #readLength(DataInput)}, and buffers grow with the data actually read, so corrupt data fails with an {@link IOException} instead of a huge allocation.
+ * @author criztovyl
+ *
+ */
+public class BinaryCodecs {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The largest length {@link #readLength(DataInput)} accepts, the largest array size supported by common VMs.
+	 */
+	public static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	private static final int MAX_PREALLOCATE = 4096;
+
+	/**
+	 * A {@link BinaryCodec} for a {@link String}, written as length-prefixed UTF-8.
+	 */
+	public static BinaryCodec<String> STRING = new BinaryCodec<String>() {
+
+		public void write(String t, DataOutput out) throws IOException {
+			byte[] bytes = t.getBytes(UTF8);
+			writeVarInt(bytes.length, out);
+			out.write(bytes);
+		}
+
+		public String read(DataInput in) throws IOException {
+			int length = readLength(in);
+			byte[] bytes = new byte[initialCapacity(length)];
+
+			//Grow with the data read, a wrong length ends with an EOFException
+			for (int read = 0; read < length; read = bytes.length) {
+
+				if (read == bytes.length)
+					bytes = Arrays.copyOf(bytes, (int) Math.min(length, bytes.length * 2L));
+
+				in.readFully(bytes, read, bytes.length - read);
+			}
+
+			return new String(bytes, UTF8);
+		}
+
+		public Class<?> getCodecClass() {
+			return String.class;
+		}
+	};
+
+	/**
+	 * A {@link BinaryCodec} for an {@link Integer}, written as zig-zag variable length integer.
+	 */
+	public static BinaryCodec<Integer> INTEGER = new BinaryCodec<Integer>() {
+
+		public void write(Integer t, DataOutput out) throws IOException {
+			writeVarLong(zigZag(t), out);
+		}
+
+		public Integer read(DataInput in) throws IOException {
+			return (int) unZigZag(readVarLong(in));
+		}
+
+		public Class<?> getCodecClass() {
+			return Integer.class;
+		}
+	};
+
+	/**
+	 * A {@link BinaryCodec} for a {@link Long}, written as zig-zag variable length integer.
+	 */
+	public static BinaryCodec<Long> LONG = new BinaryCodec<Long>() {
+
+		public void write(Long t, DataOutput out) throws IOException {
+			writeVarLong(zigZag(t), out);
+		}
+
+		public Long read(DataInput in) throws IOException {
+			return unZigZag(readVarLong(in));
+		}
+
+		public Class<?> getCodecClass() {
+			return Long.class;
+		}
+	};
+
+	/**
+	 * A {@link BinaryCodec} for a {@link Calendar}, the milliseconds since epoch are written as zig-zag variable length integer.
+	 */
+	public static BinaryCodec<Calendar> CALENDAR = new BinaryCodec<Calendar>() {
+
+		public void write(Calendar t, DataOutput out) throws IOException {
+			writeVarLong(zigZag(t.getTimeInMillis()), out);
+		}
+
+		public Calendar read(DataInput in) throws IOException {
+
+			Calendar calendar = Calendar.getInstance();
+			calendar.clear();
+			calendar.setTimeInMillis(unZigZag(readVarLong(in)));
+
+			return calendar;
+		}
+
+		public Class<?> getCodecClass() {
+			return Calendar.class;
+		}
+	};
+
+	/**
+	 * A {@link BinaryCodec} for a {@link Path}, path and separator are written as {@link #STRING}.
+	 */
+	public static BinaryCodec<Path> PATH = new BinaryCodec<Path>() {
+
+		public void write(Path t, DataOutput out) throws IOException {
+			STRING.write(t.getPath(), out);
+			STRING.write(t.getSeparator(), out);
+		}
+
+		public Path read(DataInput in) throws IOException {
+			String path = STRING.read(in);
+			return new Path(path, STRING.read(in));
+		}
+
+		public Class<?> getCodecClass() {
+			return Path.class;
+		}
+	};
+
+	/**
+	 * A {@link BinaryCodec} for a {@link FileEntry}, the numbers are written as zig-zag variable length integers, the file key as {@link #STRING} if present.
+	 */
+	public static BinaryCodec<FileEntry> FILE_ENTRY = new BinaryCodec<FileEntry>() {
+
+		public void write(FileEntry t, DataOutput out) throws IOException {
+			writeVarLong(zigZag(t.getListDate()), out);
+			writeVarLong(zigZag(t.getSize()), out);
+			writeVarLong(zigZag(t.getLastModified()), out);
+			out.writeBoolean(t.isDirectory());
+			out.writeBoolean(t.getFileKey() != null);
+			if (t.getFileKey() != null)
+				STRING.write(t.getFileKey(), out);
+		}
+
+		public FileEntry read(DataInput in) throws IOException {
+			long listDate = unZigZag(readVarLong(in));
+			long size = unZigZag(readVarLong(in));
+			long lastModified = unZigZag(readVarLong(in));
+			boolean directory = in.readBoolean();
+			return new FileEntry(listDate, size, lastModified, directory, in.readBoolean() ? STRING.read(in) : null);
+		}
+
+		public Class<?> getCodecClass() {
+			return FileEntry.class;
+		}
+	};
+
+	/**
+	 * A {@link BinaryCodec} for a {@link String} {@link List}.
+	 * @see #list(BinaryCodec)
+	 */
+	public static BinaryCodec<List<String>> STRING_LIST = list(STRING);
+
+	/**
+	 * A {@link BinaryCodec} for an {@link Integer} {@link List}.
+	 * @see #list(BinaryCodec)
+	 */
+	public static BinaryCodec<List<Integer>> INTEGER_LIST = list(INTEGER);
+
+	private static final Map<JSONCreator<?>, BinaryCodec<?>> codecs = new IdentityHashMap<>();
+
+	static {
+		register(JSONCreators.STRING, STRING);
+		register(JSONCreators.INTEGER, INTEGER);
+		register(JSONCreators.LONG, LONG);
+		register(JSONCreators.CALENDAR, CALENDAR);
+		register(JSONCreators.PATH, PATH);
+		register(JSONCreators.FILE_ENTRY, FILE_ENTRY);
+		register(JSONCreators.STRING_LIST, STRING_LIST);
+		register(JSONCreators.INTEGER_LIST, INTEGER_LIST);
+	}
+
+	/**
+	 * Creates a {@link BinaryCodec} for a {@link List}. The size is written as variable length integer, followed by the elements.
+	 * @param codec the {@link BinaryCodec} for the elements
+	 * @return a {@link BinaryCodec}
+	 */
+	public static <T> BinaryCodec<List<T>> list(final BinaryCodec<T> codec) {
+		return new BinaryCodec<List<T>>() {
+
+			public void write(List<T> t, DataOutput out) throws IOException {
+
+				writeVarInt(t.size(), out);
+
+				for (T e : t)
+					codec.write(e, out);
+			}
+
+			public List<T> read(DataInput in) throws IOException {
+
+				int size = readLength(in);
+				List<T> list = new ArrayList<>(initialCapacity(size));
+
+				for (int i = 0; i < size; i++)
+					list.add(codec.read(in));
+
+				return list;
+			}
+
+			public Class<?> getCodecClass() {
+				return List.class;
+			}
+		};
+	}
+
+	/**
+	 * Registers the {@link BinaryCodec} for a {@link JSONCreator}, so binary persistence can be used with it.
+	 * @param creator the {@link JSONCreator}
+	 * @param codec the {@link BinaryCodec}
+	 */
+	public static synchronized <T> void register(JSONCreator<T> creator, BinaryCodec<T> codec) {
+		codecs.put(creator, codec);
+	}
+
+	/**
+	 * Locates the {@link BinaryCodec} registered for a {@link JSONCreator}.
+	 * @param creator the {@link JSONCreator}
+	 * @return a {@link BinaryCodec}
+	 * @throws IllegalArgumentException If there is no {@link BinaryCodec} for the {@link JSONCreator}
+	 * @see #register(JSONCreator, BinaryCodec)
+	 */
+	@SuppressWarnings("unchecked")
+	public static synchronized <T> BinaryCodec<T> getCodec(JSONCreator<T> creator) throws IllegalArgumentException {
+
+		BinaryCodec<?> codec = codecs.get(creator);
+
+		if (codec == null)
+			throw new IllegalArgumentException("No binary codec registered for creator of " + creator.getCreatorClass().getName());
+
+		return (BinaryCodec<T>) codec;
+	}
+
+	/**
+	 * Writes a non-negative integer as variable length integer, 7 bits per byte.
+	 * @param value the integer
+	 * @param out the {@link DataOutput}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static void writeVarInt(int value, DataOutput out) throws IOException {
+		writeVarLong(value & 0xFFFFFFFFL, out);
+	}
+
+	/**
+	 * Reads a variable length integer written by {@link #writeVarInt(int, DataOutput)}.
+	 * @param in the {@link DataInput}
+	 * @return the integer
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static int readVarInt(DataInput in) throws IOException {
+		return (int) readVarLong(in);
+	}
+
+	/**
+	 * Reads a length (e.g. of a string or collection) written by {@link #writeVarInt(int, DataOutput)} and validates it.
+	 * @param in the {@link DataInput}
+	 * @return the length
+	 * @throws IOException If an I/O error occurs or the length is negative or greater than {@link #MAX_LENGTH}
+	 */
+	public static int readLength(DataInput in) throws IOException {
+
+		long length = readVarLong(in);
+
+		if (length < 0 || length > MAX_LENGTH)
+			throw new IOException("Invalid length " + length + ".");
+
+		return (int) length;
+	}
+
+	/**
+	 * Limits the initial capacity of a buffer or collection for a length read by {@link #readLength(DataInput)}, it grows while reading.
+	 * @param length the length
+	 * @return the initial capacity
+	 */
+	public static int initialCapacity(int length) {
+		return Math.min(length, MAX_PREALLOCATE);
+	}
+
+	/**
+	 * Writes a long as variable length integer, 7 bits per byte. Negative values take 10 bytes, use {@link #zigZag(long)} for them.
+	 * @param value the long
+	 * @param out the {@link DataOutput}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static void writeVarLong(long value, DataOutput out) throws IOException {
+
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Reads a variable length integer written by {@link #writeVarLong(long, DataOutput)}.
+	 * @param in the {@link DataInput}
+	 * @return the long
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static long readVarLong(DataInput in) throws IOException {
+
+		long value = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0)
+				return value;
+		}
+
+		throw new IOException("Malformed variable length integer.");
+	}
+
+	/**
+	 * Maps signed to unsigned values, so small negative numbers are small too (0, -1, 1, -2 =&gt; 0, 1, 2, 3).
+	 * @param value the signed value
+	 * @return the unsigned value
+	 */
+	public static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Reverts {@link #zigZag(long)}.
+	 * @param value the unsigned value
+	 * @return the signed value
+	 */
+	public static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -17,13 +17,17 @@
  */
 package de.joinout.criztovyl.tools.json.creator;
 
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import de.joinout.criztovyl.tools.json.JSONReader;
 
 /**
  * @author criztovyl
  *
  */
-public abstract class AbstractJSONCreator<T> implements JSONCreator<T>{
+public abstract class AbstractJSONCreator<T> implements StreamingJSONCreator<T>{
 
 	/* (non-Javadoc)
 	 * @see de.joinout.criztovyl.tools.json.creator.JSONCreator#getJSON(java.lang.Object)
@@ -35,6 +39,46 @@ public abstract class AbstractJSONCreator<T> implements JSONCreator<T>{
 	 */
 	public abstract T fromJSON(JSONObject json);
 
+	/**
+	 * Writes {@link #getJSON(Object)}, overwrite to write without creating a {@link JSONObject}.
+	 * @see de.joinout.criztovyl.tools.json.creator.StreamingJSONCreator#writeJSON(java.lang.Object, org.json.JSONWriter)
+	 */
+	public void writeJSON(T t, JSONWriter writer) {
+		writer.value(getJSON(t));
+	}
+
+	/**
+	 * Reads the next value as {@link JSONObject} and passes it to {@link #fromJSON(JSONObject)}, overwrite to read without creating a {@link JSONObject}.
+	 * @see de.joinout.criztovyl.tools.json.creator.StreamingJSONCreator#readJSON(de.joinout.criztovyl.tools.json.JSONReader)
+	 */
+	public T readJSON(JSONReader reader) {
+		return fromJSON((JSONObject) reader.nextValue());
+	}
+
+	/**
+	 * Returns {@link #getJSON(Object)}, overwrite if {@link #writeJSON(Object, JSONWriter)} is overwritten to write other values.
+	 * @see de.joinout.criztovyl.tools.json.creator.StreamingJSONCreator#toValue(java.lang.Object)
+	 */
+	public Object toValue(T t) {
+		return getJSON(t);
+	}
+
+	/**
+	 * Passes a {@link JSONObject} to {@link #fromJSON(JSONObject)} and other values to {@link #fromString(String)} if the object can be a string, overwrite if {@link #readJSON(JSONReader)} accepts other values.
+	 * @see de.joinout.criztovyl.tools.json.creator.StreamingJSONCreator#fromValue(java.lang.Object)
+	 */
+	public T fromValue(Object value) {
+
+		if(value instanceof JSONObject)
+			return fromJSON((JSONObject) value);
+
+		else if(canBeString())
+			return fromString(value.toString());
+
+		else
+			throw new JSONException("Expected a JSONObject for " + getCreatorClass().getName() + ", got " + value);
+	}
+
 	/* (non-Javadoc)
 	 * @see de.joinout.criztovyl.tools.json.creator.JSONCreator#canBeString()
 	 */
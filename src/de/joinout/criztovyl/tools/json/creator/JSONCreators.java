@@ -17,17 +17,33 @@
  */
 package de.joinout.criztovyl.tools.json.creator;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
 import de.joinout.criztovyl.tools.file.Path;
+import de.joinout.criztovyl.tools.files.FileEntry;
 import de.joinout.criztovyl.tools.json.JSONCalendar;
 import de.joinout.criztovyl.tools.json.JSONList;
+import de.joinout.criztovyl.tools.json.JSONMap;
+import de.joinout.criztovyl.tools.json.JSONReader;
+import de.joinout.criztovyl.tools.json.JSONSet;
 
 /**
- * A class with some {@link JSONCreator}s inside.
+ * A class with some {@link JSONCreator}s inside.<br>
+ * Also holds a registry to look up the {@link JSONCreator} of a class, see {@link #register(Class, JSONCreator)} and {@link #getCreator(Class)}.
  * @author criztovyl
  *
  */
@@ -48,6 +64,16 @@ public class JSONCreators {
 		public Path fromJSON(JSONObject json) {
 			return new Path(json);
 		}
+
+		@Override
+		public void writeJSON(Path t, JSONWriter writer) {
+			t.writeJSON(writer);
+		}
+		
+		@Override
+		public Path readJSON(JSONReader reader) {
+			return Path.readJSON(reader);
+		}
 		
 		@Override
 		public Class<?> getCreatorClass() {
@@ -71,6 +97,28 @@ public class JSONCreators {
 		public Calendar fromJSON(JSONObject json) {
 			return new JSONCalendar(json).getCalendar();
 		}
+		
+		@Override
+		public void writeJSON(Calendar t, JSONWriter writer) {
+			writer.object().key(JSONCalendar.JSON_EPOCH_MILLIS).value(t.getTimeInMillis()).endObject();
+		}
+		
+		@Override
+		public Calendar readJSON(JSONReader reader) {
+			
+			Calendar calendar = Calendar.getInstance();
+			calendar.clear();
+			
+			reader.beginObject();
+			while(reader.hasNext())
+				if(reader.nextKey().equals(JSONCalendar.JSON_EPOCH_MILLIS))
+					calendar.setTimeInMillis(((Number) reader.nextValue()).longValue());
+				else
+					reader.nextValue();
+			reader.endObject();
+			
+			return calendar;
+		}
 		@Override
 		public Class<?> getCreatorClass() {
 			return Calendar.class;
@@ -149,70 +197,482 @@ public class JSONCreators {
 	};
 	
 	/**
-	 * A {@link JSONCreator} for a {@link String} {@link List}.
-	 * @see JSONList
+	 * A {@link JSONCreator} for a {@link Long}, as example a timestamp in milliseconds since epoch.<br>
+	 * Values are written as plain JSON numbers by {@link #write(JSONCreator, Object, JSONWriter)}, keys of a {@link JSONMap} as strings.
+	 * Timestamps stored by {@link #CALENDAR} can also be read from a {@link JSONReader},
+	 * so it can replace a {@link Calendar} without the overhead of a {@link Calendar} object per value.
+	 * @see JSONCalendar
+	 */
+	public static JSONCreator<Long> LONG = new AbstractJSONCreator<Long>() {
+		
+		@Override
+		public String string(Long t) {
+			return t.toString();
+		}
+		
+		@Override
+		public JSONObject getJSON(Long t) {
+			JSONObject json = new JSONObject();
+			json.put("long", t);
+			return json;
+		}
+		
+		@Override
+		public Long fromString(String str) {
+			return Long.parseLong(str);
+		}
+		
+		@Override
+		public Long fromJSON(JSONObject json) {
+			return json.getLong("long");
+		}
+		
+		@Override
+		public void writeJSON(Long t, JSONWriter writer) {
+			writer.value(t.longValue());
+		}
+		
+		@Override
+		public Object toValue(Long t) {
+			return t;
+		}
+		
+		@Override
+		public Long readJSON(JSONReader reader) {
+			
+			final Object value = reader.nextValue();
+			
+			if(value instanceof Number)
+				return ((Number) value).longValue();
+			
+			//Stored by CALENDAR
+			if(value instanceof JSONObject)
+				return ((JSONObject) value).getLong(JSONCalendar.JSON_EPOCH_MILLIS);
+			
+			//Stored as string by older versions
+			return Long.parseLong(value.toString());
+		}
+		
+		@Override
+		public Long fromValue(Object value) {
+			
+			if(value instanceof Number)
+				return ((Number) value).longValue();
+			
+			if(value instanceof JSONObject){
+				
+				JSONObject json = (JSONObject) value;
+				
+				//Stored by CALENDAR or getJSON
+				return json.has("long") ? fromJSON(json) : json.getLong(JSONCalendar.JSON_EPOCH_MILLIS);
+			}
+			
+			return Long.parseLong(value.toString());
+		}
+		
+		@Override
+		public boolean canBeString() {
+			return true;
+		}
+		
+		@Override
+		public Class<?> getCreatorClass() {
+			return Long.class;
+		}
+	};
+	
+	/**
+	 * A {@link JSONCreator} for a {@link FileEntry}.
+	 * {@link FileEntry} supports it natively via {@link FileEntry#getJSON()} and {@link FileEntry#FileEntry(JSONObject)}.<br>
+	 * Timestamps stored by {@link #CALENDAR} or {@link #LONG} are read as entries without metadata.
 	 */
-	public static JSONCreator<List<String>> STRING_LIST = new AbstractJSONCreator<List<String>>() {
+	public static JSONCreator<FileEntry> FILE_ENTRY = new AbstractJSONCreator<FileEntry>() {
+
+		@Override
+		public JSONObject getJSON(FileEntry t) {
+			return t.getJSON();
+		}
 
 		@Override
-		public JSONObject getJSON(List<String> t) {
-			return new JSONList<>(t, JSONCreators.STRING).getJSON();
+		public FileEntry fromJSON(JSONObject json) {
+			return new FileEntry(json);
 		}
 
 		@Override
-		public List<String> fromJSON(JSONObject json) {
-			return new JSONList<>(json, JSONCreators.STRING).getList();
+		public void writeJSON(FileEntry t, JSONWriter writer) {
+			t.writeJSON(writer);
+		}
+
+		@Override
+		public FileEntry readJSON(JSONReader reader) {
+			return FileEntry.readJSON(reader);
+		}
+
+		@Override
+		public FileEntry fromValue(Object value) {
+
+			if(value instanceof JSONObject)
+				return new FileEntry((JSONObject) value);
+
+			//Plain timestamp
+			return new FileEntry(value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString()));
 		}
 
 		@Override
 		public Class<?> getCreatorClass() {
-			return List.class;
+			return FileEntry.class;
 		}
-		
 	};
 	
+	/**
+	 * A {@link JSONCreator} for a {@link String} {@link List}.
+	 * @see JSONList
+	 * @see #list(JSONCreator)
+	 */
+	public static JSONCreator<List<String>> STRING_LIST = list(STRING);
+	
 	/**
 	 * A {@link JSONCreator} for an {@link Integer} {@link List}.
 	 * @see JSONList 
+	 * @see #list(JSONCreator)
+	 */
+	public static JSONCreator<List<Integer>> INTEGER_LIST = list(INTEGER);
+	
+	/**
+	 * Marks classes without {@link JSONCreator} in the lookup cache.
 	 */
-	public static JSONCreator<List<Integer>> INTEGER_LIST = new AbstractJSONCreator<List<Integer>>() {
+	private static final JSONCreator<Object> NONE = new AbstractJSONCreator<Object>() {
 
 		@Override
-		public JSONObject getJSON(List<Integer> t) {
-			return new JSONList<>(t, JSONCreators.INTEGER).getJSON();
+		public JSONObject getJSON(Object t) {
+			return null;
 		}
 
 		@Override
-		public List<Integer> fromJSON(JSONObject json) {
-			return new JSONList<>(json, JSONCreators.INTEGER).getList();
+		public Object fromJSON(JSONObject json) {
+			return null;
 		}
 
 		@Override
 		public Class<?> getCreatorClass() {
-			return List.class;
+			return Object.class;
 		}
-		
 	};
+	
+	/**
+	 * The registered {@link JSONCreator}s.
+	 */
+	private static final Map<Class<?>, JSONCreator<?>> creators = new ConcurrentHashMap<>();
+	
 	/**
-	 * Try to load a {@link JSONCreators} for the given class.
+	 * The already looked up {@link JSONCreator}s, including super classes and composed ones.
+	 */
+	private static final ConcurrentMap<Type, JSONCreator<?>> resolved = new ConcurrentHashMap<>();
+	
+	static {
+		register(String.class, STRING);
+		register(Integer.class, INTEGER);
+		register(Long.class, LONG);
+		register(Calendar.class, CALENDAR);
+		register(Path.class, PATH);
+		register(FileEntry.class, FILE_ENTRY);
+	}
+	
+	/**
+	 * Creates a {@link JSONCreator} for a {@link List}.
+	 * @param creator the {@link JSONCreator} for the elements
+	 * @return a {@link JSONCreator}
+	 * @see JSONList
+	 */
+	public static <T> JSONCreator<List<T>> list(final JSONCreator<T> creator){
+		return new AbstractJSONCreator<List<T>>() {
+
+			@Override
+			public JSONObject getJSON(List<T> t) {
+				return new JSONList<>(t, creator).getJSON();
+			}
+
+			@Override
+			public List<T> fromJSON(JSONObject json) {
+				return new JSONList<>(json, creator).getList();
+			}
+
+			@Override
+			public void writeJSON(List<T> t, JSONWriter writer) {
+				new JSONList<>(t, creator).writeJSON(writer);
+			}
+
+			@Override
+			public List<T> readJSON(JSONReader reader) {
+				return new JSONList<>(reader, creator).getList();
+			}
+
+			@Override
+			public Class<?> getCreatorClass() {
+				return List.class;
+			}
+		};
+	}
+	
+	/**
+	 * Creates a {@link JSONCreator} for a {@link Set}.
+	 * @param creator the {@link JSONCreator} for the elements
+	 * @return a {@link JSONCreator}
+	 * @see JSONSet
+	 */
+	public static <T> JSONCreator<Set<T>> set(final JSONCreator<T> creator){
+		return new AbstractJSONCreator<Set<T>>() {
+
+			@Override
+			public JSONObject getJSON(Set<T> t) {
+				return new JSONSet<>(t, creator).getJSON();
+			}
+
+			@Override
+			public Set<T> fromJSON(JSONObject json) {
+				return new JSONSet<>(json, creator).getSet();
+			}
+
+			@Override
+			public void writeJSON(Set<T> t, JSONWriter writer) {
+				new JSONSet<>(t, creator).writeJSON(writer);
+			}
+
+			@Override
+			public Set<T> readJSON(JSONReader reader) {
+				return new JSONSet<>(reader, creator).getSet();
+			}
+
+			@Override
+			public Class<?> getCreatorClass() {
+				return Set.class;
+			}
+		};
+	}
+	
+	/**
+	 * Creates a {@link JSONCreator} for a {@link Map}.
+	 * @param keyJ the {@link JSONCreator} for the keys
+	 * @param valJ the {@link JSONCreator} for the values
+	 * @return a {@link JSONCreator}
+	 * @see JSONMap
+	 */
+	public static <K, V> JSONCreator<Map<K, V>> map(final JSONCreator<K> keyJ, final JSONCreator<V> valJ){
+		return new AbstractJSONCreator<Map<K, V>>() {
+
+			@Override
+			public JSONObject getJSON(Map<K, V> t) {
+				return new JSONMap<>(t, keyJ, valJ).getJSON();
+			}
+
+			@Override
+			public Map<K, V> fromJSON(JSONObject json) {
+				return new JSONMap<>(json, keyJ, valJ).getMap();
+			}
+
+			@Override
+			public void writeJSON(Map<K, V> t, JSONWriter writer) {
+				new JSONMap<>(t, keyJ, valJ).writeJSON(writer);
+			}
+
+			@Override
+			public Map<K, V> readJSON(JSONReader reader) {
+				return new JSONMap<>(reader, keyJ, valJ).getMap();
+			}
+
+			@Override
+			public Class<?> getCreatorClass() {
+				return Map.class;
+			}
+		};
+	}
+	
+	/**
+	 * Registers a {@link JSONCreator} for a class, so it can be found by {@link #getCreator(Class)}. Also used for sub classes of the class.
+	 * @param clazz the class
+	 * @param creator the {@link JSONCreator}
+	 */
+	public static <T> void register(Class<T> clazz, JSONCreator<T> creator){
+		creators.put(clazz, creator);
+		
+		//Lookups may have found a super class or nothing before
+		resolved.clear();
+	}
+	
+	/**
+	 * Writes an object as the next value of a {@link JSONWriter}.<br>
+	 * The object is written directly if the creator is a {@link StreamingJSONCreator}, else as {@link String} if the creator supports it, else as JSON data.
+	 * @param creator the {@link JSONCreator}
+	 * @param t the object
+	 * @param writer the {@link JSONWriter}
+	 */
+	public static <T> void write(JSONCreator<T> creator, T t, JSONWriter writer){
+		
+		if(creator instanceof StreamingJSONCreator)
+			((StreamingJSONCreator<T>) creator).writeJSON(t, writer);
+		
+		else if(creator.canBeString())
+			writer.value(creator.string(t));
+		
+		else
+			writer.value(creator.getJSON(t));
+	}
+	/**
+	 * Creates the value of an object for a {@link JSONObject} or {@link org.json.JSONArray}, the tree counterpart of {@link #write(JSONCreator, Object, JSONWriter)}.<br>
+	 * The value has the same form as written by {@link #write(JSONCreator, Object, JSONWriter)}, so data created by both can be read by {@link #fromValue(JSONCreator, Object)}.
+	 * @param creator the {@link JSONCreator}
+	 * @param t the object
+	 * @return the value
+	 */
+	public static <T> Object toValue(JSONCreator<T> creator, T t){
+		
+		if(creator instanceof StreamingJSONCreator)
+			return ((StreamingJSONCreator<T>) creator).toValue(t);
+		
+		else if(creator.canBeString())
+			return creator.string(t);
+		
+		else
+			return creator.getJSON(t);
+	}
+	/**
+	 * Reads the next value of a {@link JSONReader} as object, the counterpart of {@link #write(JSONCreator, Object, JSONWriter)}.
+	 * @param creator the {@link JSONCreator}
+	 * @param reader the {@link JSONReader}
+	 * @return the object
+	 */
+	public static <T> T read(JSONCreator<T> creator, JSONReader reader){
+		
+		if(creator instanceof StreamingJSONCreator)
+			return ((StreamingJSONCreator<T>) creator).readJSON(reader);
+		
+		else if(creator.canBeString())
+			return creator.fromString(reader.nextValue().toString());
+		
+		else
+			return creator.fromJSON((JSONObject) reader.nextValue());
+	}
+	/**
+	 * Creates an object from a value of a {@link JSONObject} or {@link org.json.JSONArray}, the tree counterpart of {@link #read(JSONCreator, JSONReader)}.<br>
+	 * The value is passed directly to a {@link StreamingJSONCreator}, so it is read the same way as by {@link #read(JSONCreator, JSONReader)}.
+	 * @param creator the {@link JSONCreator}
+	 * @param value the value
+	 * @return the object
+	 * @throws JSONException if the value cannot be read by the creator
+	 */
+	public static <T> T fromValue(JSONCreator<T> creator, Object value){
+
+		if(creator instanceof StreamingJSONCreator)
+			return ((StreamingJSONCreator<T>) creator).fromValue(value);
+
+		else if(value instanceof JSONObject && !creator.canBeString())
+			return creator.fromJSON((JSONObject) value);
+
+		else if(creator.canBeString())
+			return creator.fromString(value.toString());
+
+		else
+			throw new JSONException("Expected a JSONObject for " + creator.getCreatorClass().getName() + ", got " + value);
+	}
+
+	/**
+	 * Try to load a {@link JSONCreators} for the given class.<br>
+	 * Takes the {@link JSONCreator} registered for the class or the nearest super class or interface.
+	 * Lookups are cached, so repeated lookups are constant-time.
 	 * @param clazz the class
 	 * @return the {@link JSONCreators} if found or <code>null</code> if not.
+	 * @see #register(Class, JSONCreator)
 	 */
 	public static JSONCreator<?> getCreator(Class<?> clazz){
+		return getCreator((Type) clazz);
+	}
+	
+	/**
+	 * Try to load a {@link JSONCreators} for the given type.<br>
+	 * Classes are looked up as by {@link #getCreator(Class)}, {@link List}s, {@link Set}s and {@link Map}s of types with a {@link JSONCreator} are composed by
+	 * {@link #list(JSONCreator)}, {@link #set(JSONCreator)} and {@link #map(JSONCreator, JSONCreator)} (i.e. <code>Map&lt;String, List&lt;Path&gt;&gt;</code>).
+	 * Lookups are cached, so repeated lookups are constant-time.
+	 * @param type the type, as example from {@link java.lang.reflect.Field#getGenericType()}
+	 * @return the {@link JSONCreators} if found or <code>null</code> if not.
+	 */
+	public static JSONCreator<?> getCreator(Type type){
 		
-		String name = clazz.getName();
+		JSONCreator<?> creator = resolved.get(type);
 		
-		if(name.equals(STRING.getCreatorClass().getName()))
-			return STRING;
+		//Not looked up yet
+		if(creator == null){
+			
+			creator = resolve(type);
+			
+			if(creator == null)
+				creator = NONE;
+			
+			JSONCreator<?> previous = resolved.putIfAbsent(type, creator);
+			if(previous != null)
+				creator = previous;
+		}
 		
-		else if(name.equals(CALENDAR.getCreatorClass().getName()))
-			return CALENDAR;
+		return creator == NONE ? null : creator;
+	}
+	
+	/**
+	 * Looks up the {@link JSONCreator} for a type.
+	 * @param type the type
+	 * @return the {@link JSONCreator} or <code>null</code> if there is none.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static JSONCreator<?> resolve(Type type){
 		
-		else if(name.equals(PATH.getCreatorClass().getName()))
-			return PATH;
+		if(type instanceof Class)
+			return resolveClass((Class<?>) type);
 		
+		else if(type instanceof ParameterizedType){
+			
+			Class<?> raw = (Class<?>) ((ParameterizedType) type).getRawType();
+			Type[] args = ((ParameterizedType) type).getActualTypeArguments();
+			
+			//Only if the type can hold the collection created by the JSON helpers
+			if(List.class.isAssignableFrom(raw) && raw.isAssignableFrom(ArrayList.class)){
+				JSONCreator element = getCreator(args[0]);
+				return element == null ? null : list(element);
+			}
+			else if(Set.class.isAssignableFrom(raw) && raw.isAssignableFrom(HashSet.class)){
+				JSONCreator element = getCreator(args[0]);
+				return element == null ? null : set(element);
+			}
+			else if(Map.class.isAssignableFrom(raw) && raw.isAssignableFrom(HashMap.class)){
+				JSONCreator key = getCreator(args[0]);
+				JSONCreator value = getCreator(args[1]);
+				return key == null || value == null ? null : map(key, value);
+			}
+			else
+				return null;
+		}
 		else
 			return null;
 	}
 	
+	/**
+	 * Looks up the {@link JSONCreator} for a class, its super classes and its interfaces.
+	 * @param clazz the class
+	 * @return the {@link JSONCreator} or <code>null</code> if there is none.
+	 */
+	private static JSONCreator<?> resolveClass(Class<?> clazz){
+		
+		//Super classes first
+		for(Class<?> c = clazz; c != null; c = c.getSuperclass())
+			if(creators.containsKey(c))
+				return creators.get(c);
+		
+		//Then interfaces
+		for(Class<?> c = clazz; c != null; c = c.getSuperclass())
+			for(Class<?> i : c.getInterfaces()){
+				JSONCreator<?> creator = resolveClass(i);
+				if(creator != null)
+					return creator;
+			}
+		
+		return null;
+	}
+	
 }
@@ -0,0 +1,62 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.json.creator;
+
+import org.json.JSONWriter;
+
+import de.joinout.criztovyl.tools.json.JSONReader;
+
+/**
+ * A {@link JSONCreator} that can write the JSON data of an object directly to a {@link JSONWriter} and read it from a {@link JSONReader}, without creating a {@link org.json.JSONObject} first.<br>
+ * Use {@link JSONCreators#write(JSONCreator, Object, JSONWriter)} and {@link JSONCreators#read(JSONCreator, JSONReader)} to write and read with any {@link JSONCreator}.
+ * @author criztovyl
+ *
+ */
+public interface StreamingJSONCreator<T> extends JSONCreator<T> {
+
+	/**
+	 * Writes the JSON data of an object as the next value of the writer.<br>
+	 * The data has to be equal to {@link #getJSON(Object)}, or to {@link #string(Object)} if the object can be a string (a number may be written as such).
+	 * @param t the object
+	 * @param writer the {@link JSONWriter}
+	 */
+	public void writeJSON(T t, JSONWriter writer);
+	
+	/**
+	 * Reads the next value of the reader as an object.<br>
+	 * The result has to be equal to {@link #fromJSON(org.json.JSONObject)}.
+	 * @param reader the {@link JSONReader}
+	 * @return the object
+	 */
+	public T readJSON(JSONReader reader);
+	
+	/**
+	 * Creates an object from a value of a {@link org.json.JSONObject} or {@link org.json.JSONArray}, the tree counterpart of {@link #readJSON(JSONReader)}.<br>
+	 * Accepts every value {@link #readJSON(JSONReader)} accepts.
+	 * @param value the value
+	 * @return the object
+	 */
+	public T fromValue(Object value);
+	
+	/**
+	 * The value {@link #writeJSON(Object, JSONWriter)} writes, as value for a {@link org.json.JSONObject} or {@link org.json.JSONArray}.
+	 * @param t the object
+	 * @return the value
+	 */
+	public Object toValue(T t);
+}
@@ -75,11 +75,8 @@ public class License{
 		if(isResource){
 			try { //Try to load license form resource
 				
-				//Collect lines from resource stream.
-				LineCollector rc = new LineCollector(getClass().getClassLoader().getResourceAsStream(string));
-				
-				//Set text
-				this.text = rc.asString();
+				//Read lines from resource stream and set text
+				this.text = LineCollector.readString(getClass().getClassLoader().getResourceAsStream(string));
 				
 			} catch (IOException e) {
 				
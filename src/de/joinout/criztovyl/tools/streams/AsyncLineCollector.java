@@ -0,0 +1,292 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.streams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.joinout.criztovyl.tools.strings.StringUtils;
+
+/**
+ * Collects lines from multiple inputs concurrently, each input is read on its own thread.<br>
+ * Reading the outputs of a {@link Process} one after another can deadlock: the process blocks when the buffer of one pipe is full,
+ * while the other one is read. {@link #collect(Process)} drains both at the same time.<br>
+ * Lines can be passed to a {@link LineListener} or a {@link BlockingQueue} while reading, the results are returned as {@link Future}s.
+ * The streams are closed when they are read completely.
+ * @author criztovyl
+ *
+ */
+public class AsyncLineCollector {
+
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a new collector with an own thread pool. Threads are reused and do not prevent the JVM from exiting.
+	 * A thread is started for every input that is read at the same time, so inputs never wait for each other.
+	 */
+	public AsyncLineCollector() {
+		this(Executors.newCachedThreadPool(new ThreadFactory() {
+
+			private final AtomicInteger number = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+
+				final Thread thread = new Thread(r, "AsyncLineCollector-" + number.incrementAndGet());
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		}));
+	}
+
+	/**
+	 * Creates a new collector with a given {@link ExecutorService}.<br>
+	 * The executor needs to run as many tasks at the same time as inputs are read, otherwise inputs wait for each other.
+	 * @param executor the {@link ExecutorService}
+	 */
+	public AsyncLineCollector(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Collects all lines from an {@link InputStream}.
+	 * @param is the input stream
+	 * @return a {@link Future} of the {@link LineCollector}
+	 */
+	public Future<LineCollector> collect(InputStream is) {
+		return collect(is, 0, null);
+	}
+
+	/**
+	 * Collects the last lines from an {@link InputStream} and passes every line to a {@link LineListener}.
+	 * @param is the input stream
+	 * @param last the number of lines to keep or 0 to keep all
+	 * @param listener the {@link LineListener} or <code>null</code>
+	 * @return a {@link Future} of the {@link LineCollector}
+	 * @see LineCollector#LineCollector(BufferedReader, int, LineListener)
+	 */
+	public Future<LineCollector> collect(final InputStream is, final int last, final LineListener listener) {
+		return executor.submit(new Callable<LineCollector>() {
+
+			@Override
+			public LineCollector call() throws IOException {
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
+					return new LineCollector(reader, last, listener);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Collects all lines from the output and the error output of a {@link Process} concurrently.
+	 * @param process the {@link Process}
+	 * @return a {@link Future} that is done when both outputs were read completely,
+	 * of a {@link List} with the {@link LineCollector} of the output and the {@link LineCollector} of the error output.
+	 */
+	public Future<List<LineCollector>> collect(Process process) {
+		return new AllFuture<>(Arrays.asList(collect(process.getInputStream()), collect(process.getErrorStream())));
+	}
+
+	/**
+	 * Passes all lines from an {@link InputStream} to a {@link LineListener}, the lines are not collected.
+	 * @param is the input stream
+	 * @param listener the {@link LineListener}
+	 * @return a {@link Future} of the number of lines read
+	 */
+	public Future<Long> drain(final InputStream is, final LineListener listener) {
+		return executor.submit(new Callable<Long>() {
+
+			@Override
+			public Long call() throws IOException {
+				return read(is, listener);
+			}
+		});
+	}
+
+	/**
+	 * Puts all lines from an {@link InputStream} into a {@link BlockingQueue}, the lines are not collected.<br>
+	 * If the queue is bounded, reading waits while it is full. All lines were put when the {@link Future} is done.<br>
+	 * After the last line, also if reading failed or the task was cancelled or interrupted, an end marker is put, so a consumer taking from the queue knows when to stop.
+	 * The marker is also put if the thread is interrupted, it waits for space in a bounded queue and restores the interrupt status afterwards.
+	 * A {@link String} with a line break cannot be a line, as example {@link StringUtils#newline()}, so it is a safe marker.
+	 * @param is the input stream
+	 * @param queue the {@link BlockingQueue}
+	 * @param end the end marker
+	 * @return a {@link Future} of the number of lines read
+	 * @see LineListener.QueueListener
+	 */
+	public Future<Long> drain(final InputStream is, final BlockingQueue<String> queue, final String end) {
+
+		final LineListener listener = new LineListener.QueueListener(queue);
+
+		return executor.submit(new Callable<Long>() {
+
+			@Override
+			public Long call() throws IOException {
+				try {
+					return read(is, listener);
+				} finally {
+					putEnd(queue, end);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Puts an end marker into a queue, also if the current thread is interrupted.
+	 * The interrupt status is cleared while waiting and restored afterwards, so the marker is not lost and no exception replaces the one of the read.
+	 * @param queue the {@link BlockingQueue}
+	 * @param end the end marker
+	 */
+	private static void putEnd(BlockingQueue<String> queue, String end) {
+
+		boolean interrupted = Thread.interrupted();
+
+		try {
+			while (true)
+				try {
+					queue.put(end);
+					return;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Passes all lines from an {@link InputStream} to a {@link LineListener} and closes the stream.
+	 * @param is the input stream
+	 * @param listener the {@link LineListener}
+	 * @return the number of lines read
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static long read(InputStream is, LineListener listener) throws IOException {
+
+		long count = 0;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
+
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				listener.line(line);
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Stops accepting new inputs, inputs being read are finished. Pass-through to {@link ExecutorService#shutdown()}.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * A {@link Future} that is done when all of some {@link Future}s are done, of a {@link List} of their results.
+	 * @param <T> the result class
+	 */
+	private static class AllFuture<T> implements Future<List<T>> {
+
+		private final List<Future<T>> futures;
+
+		/**
+		 * Creates a new future upon some {@link Future}s.
+		 * @param futures the {@link Future}s
+		 */
+		public AllFuture(List<Future<T>> futures) {
+			this.futures = futures;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+
+			boolean cancelled = false;
+
+			for (Future<T> future : futures)
+				cancelled |= future.cancel(mayInterruptIfRunning);
+
+			return cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+
+			for (Future<T> future : futures)
+				if (future.isCancelled())
+					return true;
+
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+
+			for (Future<T> future : futures)
+				if (!future.isDone())
+					return false;
+
+			return true;
+		}
+
+		@Override
+		public List<T> get() throws InterruptedException, ExecutionException {
+
+			final List<T> results = new ArrayList<>(futures.size());
+
+			for (Future<T> future : futures)
+				results.add(future.get());
+
+			return results;
+		}
+
+		@Override
+		public List<T> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+
+			//All futures share the timeout
+			final long deadline = System.nanoTime() + unit.toNanos(timeout);
+			final List<T> results = new ArrayList<>(futures.size());
+
+			for (Future<T> future : futures)
+				results.add(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+
+			return results;
+		}
+	}
+}
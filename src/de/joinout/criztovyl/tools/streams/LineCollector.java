@@ -21,9 +21,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import org.apache.commons.io.LineIterator;
+
 import de.joinout.criztovyl.tools.strings.StringUtils;
 
 /**
@@ -44,11 +48,16 @@ import de.joinout.criztovyl.tools.strings.StringUtils;
  * </ul>
  * </td></tr>
  * </table>
+ * To bound the memory only the last lines can be kept (see {@link #LineCollector(BufferedReader, int)}).
+ * Inputs that are not needed as a whole can be read lazily by {@link #lines(BufferedReader)},
+ * or directly into a single {@link String} by {@link #readString(BufferedReader)}.<br>
+ * To read multiple inputs concurrently, like the outputs of a {@link Process}, see {@link AsyncLineCollector}.
  * @author criztovyl
  *
  */
 public class LineCollector{
 	private ArrayList<String> lines;
+	private long count;
 	
 	/**
 	 * Collects all lines from a {@link BufferedReader}.
@@ -56,14 +65,63 @@ public class LineCollector{
 	 * @throws IOException If an I/O error occurs
 	 */
 	public LineCollector(BufferedReader reader) throws IOException{
+		this(reader, 0);
+	}
+	/**
+	 * Collects the last lines from a {@link BufferedReader}, older lines are dropped while reading.
+	 * @param reader the reader
+	 * @param last the number of lines to keep or 0 to keep all
+	 * @throws IOException If an I/O error occurs
+	 */
+	public LineCollector(BufferedReader reader, int last) throws IOException{
+		this(reader, last, null);
+	}
+	/**
+	 * Collects the last lines from a {@link BufferedReader} and passes every line to a {@link LineListener} while reading.
+	 * @param reader the reader
+	 * @param last the number of lines to keep or 0 to keep all
+	 * @param listener the {@link LineListener} or <code>null</code>
+	 * @throws IOException If an I/O error occurs
+	 */
+	public LineCollector(BufferedReader reader, int last, LineListener listener) throws IOException{
 		
 		//Set up variables
-		lines = new ArrayList<>();
 		String line = "";
 		
-		//Read line per line and add to list
-		while((line = reader.readLine()) != null)
-			lines.add(line);
+		if(last <= 0){
+			
+			lines = new ArrayList<>();
+			
+			//Read line per line and add to list
+			while((line = reader.readLine()) != null){
+				
+				if(listener != null)
+					listener.line(line);
+				
+				lines.add(line);
+			}
+			
+			count = lines.size();
+		}
+		else {
+			
+			//Ring buffer of the last lines
+			final ArrayDeque<String> ring = new ArrayDeque<>();
+			
+			while((line = reader.readLine()) != null){
+				
+				if(listener != null)
+					listener.line(line);
+				
+				if(ring.size() == last)
+					ring.removeFirst();
+				
+				ring.addLast(line);
+				count++;
+			}
+			
+			lines = new ArrayList<>(ring);
+		}
 		
 	}
 	/**
@@ -72,7 +130,79 @@ public class LineCollector{
 	 * @throws IOException If an I/O error occurs
 	 */
 	public LineCollector(InputStream is) throws IOException{
-		this(new BufferedReader(new InputStreamReader(is)));
+		this(is, 0);
+	}
+	/**
+	 * Collects the last lines from an {@link InputStream}.
+	 * @param is the input stream
+	 * @param last the number of lines to keep or 0 to keep all
+	 * @throws IOException If an I/O error occurs
+	 * @see #LineCollector(BufferedReader, int)
+	 */
+	public LineCollector(InputStream is, int last) throws IOException{
+		this(new BufferedReader(new InputStreamReader(is)), last);
+	}
+	/**
+	 * Reads lines lazily from a {@link BufferedReader}, a line is only read when it is requested.<br>
+	 * The lines can be iterated once, the reader is closed when the last line was read.
+	 * {@link IOException}s are thrown as {@link IllegalStateException}s by the {@link Iterator}.
+	 * @param reader the reader
+	 * @return an {@link Iterable}
+	 */
+	public static Iterable<String> lines(final BufferedReader reader){
+		return new Iterable<String>() {
+			
+			@Override
+			public Iterator<String> iterator() {
+				return new LineIterator(reader);
+			}
+		};
+	}
+	/**
+	 * Reads lines lazily from an {@link InputStream}.
+	 * @param is the input stream
+	 * @return an {@link Iterable}
+	 * @see #lines(BufferedReader)
+	 */
+	public static Iterable<String> lines(InputStream is){
+		return lines(new BufferedReader(new InputStreamReader(is)));
+	}
+	/**
+	 * Reads all lines from a {@link BufferedReader} into a single {@link String}, the lines are not collected.<br>
+	 * The result is equal to {@link #asString()}. The reader is closed when all lines were read, see {@link #lines(BufferedReader)}.
+	 * @param reader the reader
+	 * @return a {@link String}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static String readString(BufferedReader reader) throws IOException{
+		
+		final String newline = StringUtils.newline();
+		
+		try {
+			return StringUtils.joinTo(new StringBuilder(), lines(reader), newline, newline).toString();
+		} catch (IllegalStateException e) { //Thrown by the line iterator
+			if(e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			else
+				throw e;
+		}
+	}
+	/**
+	 * Reads all lines from an {@link InputStream} into a single {@link String}.
+	 * @param is the input stream
+	 * @return a {@link String}
+	 * @throws IOException If an I/O error occurs
+	 * @see #readString(BufferedReader)
+	 */
+	public static String readString(InputStream is) throws IOException{
+		return readString(new BufferedReader(new InputStreamReader(is)));
+	}
+	/**
+	 * 
+	 * @return the number of lines read, including dropped ones
+	 */
+	public long getLineCount(){
+		return count;
 	}
 	/**
 	 * Converts collected lines into an {@link String} array.
@@ -94,8 +224,21 @@ public class LineCollector{
 	 * @return a {@link String}
 	 */
 	public String asString(){
+		
+		final String newline = StringUtils.newline();
+		
+		//Size of the result
+		int length = lines.isEmpty() ? 0 : (lines.size() - 1) * newline.length();
+		
+		for(String line : lines)
+			length += line.length();
+		
 		//Transform into a single String
-		return new StringUtils(lines).join(StringUtils.STYLE_NEWLINE);
+		try {
+			return StringUtils.joinTo(new StringBuilder(length), lines, newline, newline).toString();
+		} catch (IOException e) { //StringBuilder does not throw
+			throw new IllegalStateException(e);
+		}
 	}
 	
 }
@@ -0,0 +1,61 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.streams;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Receives lines while they are read, see {@link LineCollector#LineCollector(java.io.BufferedReader, int, LineListener)} and {@link AsyncLineCollector}.
+ * @author criztovyl
+ *
+ */
+public interface LineListener {
+
+	/**
+	 * Is called for each line read, in order, on the reading thread.
+	 * @param line the line, without line terminator
+	 */
+	public void line(String line);
+
+	/**
+	 * Puts lines into a {@link BlockingQueue}. A bounded queue blocks the reading thread while it is full.<br>
+	 * If the reading thread is interrupted while waiting, an {@link IllegalStateException} is thrown.
+	 */
+	public static class QueueListener implements LineListener {
+
+		private final BlockingQueue<String> queue;
+
+		/**
+		 * Creates a new listener for a queue.
+		 * @param queue the {@link BlockingQueue}
+		 */
+		public QueueListener(BlockingQueue<String> queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public void line(String line) {
+			try {
+				queue.put(line);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the queue.", e);
+			}
+		}
+	}
+}
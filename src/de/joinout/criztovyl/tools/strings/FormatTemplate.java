@@ -0,0 +1,191 @@
+/**
+    This is a part of my tool collection.
+    Copyright (C) 2014 Christoph "criztovyl" Schulz
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.joinout.criztovyl.tools.strings;
+
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * A format string for {@link String#format(String, Object...)}, parsed once and rendered into a {@link StringBuilder}.<br>
+ * Only <code>%s</code>, <code>%<i>n</i>$s</code>, <code>%%</code> and <code>%n</code> are rendered by the template itself,
+ * all other formats (flags, widths, other conversions) and {@link Formattable} arguments are passed through to {@link String#format(String, Object...)}.
+ * @author criztovyl
+ *
+ */
+public class FormatTemplate {
+
+	private final String format;
+	private final String[] literals;
+	private final int[] arguments;
+
+	/**
+	 * Creates a new template.
+	 * @param format the format string
+	 * @param literals the literals before each argument and after the last one or <code>null</code> if the format is not compiled
+	 * @param arguments the zero-based argument indices
+	 */
+	private FormatTemplate(String format, String[] literals, int[] arguments) {
+		this.format = format;
+		this.literals = literals;
+		this.arguments = arguments;
+	}
+
+	/**
+	 * Parses a format string.
+	 * @param format the format string, as for {@link String#format(String, Object...)}
+	 * @return a {@link FormatTemplate}
+	 */
+	public static FormatTemplate compile(String format) {
+
+		final List<String> literals = new ArrayList<>();
+		final List<Integer> arguments = new ArrayList<>();
+		final StringBuilder literal = new StringBuilder();
+
+		//Index of the next argument without explicit index
+		int ordinary = 0;
+
+		for (int i = 0; i < format.length(); i++) {
+
+			final char c = format.charAt(i);
+
+			if (c != '%') {
+				literal.append(c);
+				continue;
+			}
+
+			//Explicit argument index
+			int j = i + 1, index = -1;
+
+			while (j < format.length() && Character.isDigit(format.charAt(j)))
+				j++;
+
+			if (j > i + 1) {
+
+				//Digits without dollar are a width
+				if (j >= format.length() || format.charAt(j) != '$')
+					return new FormatTemplate(format, null, null);
+
+				index = Integer.parseInt(format.substring(i + 1, j)) - 1;
+				j++;
+
+				if (index < 0)
+					return new FormatTemplate(format, null, null);
+			}
+
+			if (j >= format.length())
+				return new FormatTemplate(format, null, null);
+
+			final char conversion = format.charAt(j);
+
+			if (conversion == 's') {
+
+				literals.add(literal.toString());
+				literal.setLength(0);
+
+				arguments.add(index == -1 ? ordinary++ : index);
+			}
+			else if (conversion == '%' && index == -1)
+				literal.append('%');
+			else if (conversion == 'n' && index == -1)
+				literal.append(System.lineSeparator());
+			else
+				return new FormatTemplate(format, null, null);
+
+			i = j;
+		}
+
+		literals.add(literal.toString());
+
+		final int[] indices = new int[arguments.size()];
+
+		for (int i = 0; i < indices.length; i++)
+			indices[i] = arguments.get(i);
+
+		return new FormatTemplate(format, literals.toArray(new String[literals.size()]), indices);
+	}
+
+	/**
+	 * 
+	 * @return the format string
+	 */
+	public String getFormat() {
+		return format;
+	}
+
+	/**
+	 * 
+	 * @return true if the template is rendered by itself, false if it is passed through to {@link String#format(String, Object...)}.
+	 */
+	public boolean isCompiled() {
+		return literals != null;
+	}
+
+	/**
+	 * Renders the template with some arguments into a {@link StringBuilder}.
+	 * @param builder the {@link StringBuilder}
+	 * @param args the arguments
+	 * @return the {@link StringBuilder}, for chaining
+	 * @throws MissingFormatArgumentException If there are less arguments than the format refers to
+	 */
+	public StringBuilder appendTo(StringBuilder builder, Object... args) {
+
+		if (!isCompiled() || hasFormattable(args))
+			return builder.append(String.format(format, args));
+
+		for (int i = 0; i < arguments.length; i++) {
+
+			if (arguments[i] >= args.length)
+				throw new MissingFormatArgumentException("%" + (arguments[i] + 1) + "$s");
+
+			builder.append(literals[i]).append(String.valueOf(args[arguments[i]]));
+		}
+
+		return builder.append(literals[arguments.length]);
+	}
+
+	/**
+	 * Renders the template with some arguments.
+	 * @param args the arguments
+	 * @return the {@link String}
+	 * @see #appendTo(StringBuilder, Object...)
+	 */
+	public String format(Object... args) {
+		return appendTo(new StringBuilder(), args).toString();
+	}
+
+	/**
+	 * Checks if an argument formats itself.
+	 * @param args the arguments
+	 * @return true if an argument is {@link Formattable}
+	 */
+	private static boolean hasFormattable(Object[] args) {
+
+		for (Object arg : args)
+			if (arg instanceof Formattable)
+				return true;
+
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return format;
+	}
+}
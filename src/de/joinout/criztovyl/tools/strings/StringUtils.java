@@ -17,12 +17,13 @@
  */
 package de.joinout.criztovyl.tools.strings;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-
-import de.joinout.criztovyl.tools.lists.ActionMethod;
-import de.joinout.criztovyl.tools.lists.ListUtility;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A object that helps with {@link String}s.<br>
@@ -35,6 +36,9 @@ public class StringUtils {
 	public final static int STYLE_KOMMA_AND = 0;
 	public final static int STYLE_NEWLINE = 1;
 	
+	private final static FormatTemplate PREFIX = FormatTemplate.compile("%2$s%1$s");
+	private final static FormatTemplate SUFFIX = FormatTemplate.compile("%s%s");
+	
 	private String string;
 	private ArrayList<String> strings;
 	
@@ -147,33 +151,74 @@ public class StringUtils {
 	
 	/**
 	 * Joins the {@link String} {@link Collection} by a separator and the last element by a
-	 * special separator.
+	 * special separator.<br>
+	 * The separators are literal, an empty special separator is replaced by the separator.
 	 * @param separator the separator
 	 * @param specialSeparator the special separator
 	 * @return this, for chaining
 	 */
 	public String join(String separator, String specialSeparator){
 
-		String string = "";
-		if(!strings.isEmpty()){
+		if(specialSeparator.isEmpty())
+			specialSeparator = separator;
+
+		// Calculate length to never grow the builder
+		int length = 0;
+
+		for(String string : strings)
+			length += string.length();
 
-			// Get last
-			String last = strings.get(strings.size()-1);
+		if(strings.size() > 1)
+			length += (strings.size() - 2) * separator.length() + specialSeparator.length();
 
-			// If only last element, set string to last.
-			if(strings.size() == 1)
-				string += last;
-			/* If more elements, iterate over list and add each element, suffixed by the separator, to
-			 * string. After iteration replace last separator with the special last separator and append
-			 * last element removed above.
-			 */
-			else{
-				for(String related : strings.subList(0, strings.size()-1))
-					string += related + separator;
-				string = specialSeparator.equals("") ? string += last : string.replaceAll(separator + "$", specialSeparator + last);
-			}
+		try {
+			return joinTo(new StringBuilder(length), strings, separator, specialSeparator).toString();
+		} catch (IOException e) { //StringBuilder does not throw
+			throw new IllegalStateException(e);
 		}
-		return string;
+	}
+	/**
+	 * Appends the {@link String} {@link Collection} joined by a separator and the last element by a
+	 * special separator to an {@link Appendable}.
+	 * @param appendable the {@link Appendable}
+	 * @param separator the separator
+	 * @param specialSeparator the special separator
+	 * @return the {@link Appendable}, for chaining
+	 * @throws IOException If the {@link Appendable} throws one
+	 * @see #joinTo(Appendable, Iterable, String, String)
+	 */
+	public <A extends Appendable> A joinTo(A appendable, String separator, String specialSeparator) throws IOException{
+		return joinTo(appendable, strings, separator, specialSeparator.isEmpty() ? separator : specialSeparator);
+	}
+	/**
+	 * Appends elements joined by a separator and the last element by a special separator to an {@link Appendable}, in a single pass.<br>
+	 * The elements are not collected, so they can be streamed from any {@link Iterable}. The separators are literal.
+	 * @param appendable the {@link Appendable}
+	 * @param strings the elements
+	 * @param separator the separator
+	 * @param specialSeparator the separator before the last element
+	 * @return the {@link Appendable}, for chaining
+	 * @throws IOException If the {@link Appendable} throws one
+	 */
+	public static <A extends Appendable> A joinTo(A appendable, Iterable<? extends CharSequence> strings, String separator, String specialSeparator) throws IOException{
+
+		final Iterator<? extends CharSequence> iterator = strings.iterator();
+
+		if(!iterator.hasNext())
+			return appendable;
+
+		// Separator depends on whether another element follows
+		CharSequence current = iterator.next();
+		appendable.append(current);
+
+		while(iterator.hasNext()){
+
+			current = iterator.next();
+
+			appendable.append(iterator.hasNext() ? separator : specialSeparator).append(current);
+		}
+
+		return appendable;
 	}
 	
 	/**
@@ -190,18 +235,7 @@ public class StringUtils {
 	 * @return this, for chaining.
 	 */
 	public StringUtils prefix(String prefix){
-		return each("%2$s%1$s", prefix);
-	}
-	
-	/**
-	 * Sets the String collection.
-	 * @param collection the {@link Collection}
-	 * @return this, for chaining.
-	 */
-	private StringUtils setCollection(Collection<String> collection){
-		this.strings = new ArrayList<>(collection);
-		
-		return this;
+		return each(PREFIX, prefix);
 	}
 	
 	/**
@@ -228,7 +262,7 @@ public class StringUtils {
 	 * @return this, for chaining.
 	 */
 	public StringUtils suffix(String suffix){
-		return each("%s%s", suffix);
+		return each(SUFFIX, suffix);
 	}
 	/**
 	 * Does a {@link String#format(String, Object...)} on each {@link Collection} element and 
@@ -237,20 +271,38 @@ public class StringUtils {
 	 * @param format the format string
 	 * @param args the arguments
 	 * @return this, for chaining.
+	 * @see #each(FormatTemplate, Object...)
 	 */
-	private StringUtils each(final String format, Object ...args){
+	public StringUtils each(String format, Object ...args){
+		return each(FormatTemplate.compile(format), args);
+	}
+	/**
+	 * Renders a {@link FormatTemplate} for each {@link Collection} element and replaces it with the result.<br>
+	 * The element is always the first argument. The arguments and the {@link StringBuilder} are reused for all elements.
+	 * @param template the {@link FormatTemplate}
+	 * @param args the arguments
+	 * @return this, for chaining.
+	 */
+	public StringUtils each(FormatTemplate template, Object ...args){
 		
-		//Create arguments ArrayList (for usage in action)
-		final ArrayList<Object> args_ = new ArrayList<>(Arrays.asList(args));	
+		//Element is the first argument, the others stay
+		final Object[] arguments = new Object[args.length + 1];
+		System.arraycopy(args, 0, arguments, 1, args.length);
+		
+		final StringBuilder builder = new StringBuilder();
+		final ArrayList<String> result = new ArrayList<>(strings.size());
+		
+		// Render each element
+		for(String string : strings){
+			
+			arguments[0] = string;
+			builder.setLength(0);
+			
+			result.add(template.appendTo(builder, arguments).toString());
+		}
 		
 		// Replace list
-		setCollection(new ListUtility<>(
-				new ArrayList<>(getCollection())).each(new ActionMethod<String, String>() {
-
-			public String action(String i) {
-				return String.format(format, createArgumentsList(i, args_).toArray());
-			}
-		}));
+		strings = result;
 
 		return this;
 	}
@@ -259,20 +311,28 @@ public class StringUtils {
 	 * @param regex the regular expression
 	 * @param replacement the replacement
 	 * @return this, for chaining.
+	 * @see #replaceAll(Pattern, String)
 	 */
-	public StringUtils replaceAll(final String regex, final String replacement){
+	public StringUtils replaceAll(String regex, String replacement){
+		return replaceAll(Pattern.compile(regex), replacement);
+	}
+	/**
+	 * Replaces all occurrences of a compiled regular expression in all {@link String}s, one {@link Matcher} is reused for all.
+	 * @param pattern the {@link Pattern}
+	 * @param replacement the replacement, as for {@link Matcher#replaceAll(String)}
+	 * @return this, for chaining.
+	 */
+	public StringUtils replaceAll(Pattern pattern, String replacement){
 		
-		//Replace collection and do an for-each
-		setCollection(new ListUtility<>(new ArrayList<>(strings)).each(
-				new ActionMethod<String, String>(){
-
-			public String action(String i) {
-				
-				// Replace
-				return i.replaceAll(regex, replacement);
-			}
-			
-		}));
+		final Matcher matcher = pattern.matcher("");
+		final ArrayList<String> result = new ArrayList<>(strings.size());
+		
+		// Replace
+		for(String string : strings)
+			result.add(matcher.reset(string).replaceAll(replacement));
+		
+		// Replace list
+		strings = result;
 
 		// Return
 		return this;
@@ -365,10 +425,10 @@ public class StringUtils {
 	@Deprecated
 	public static String prefixLines(String lines, String newline, String prefix){
 		String[] linesA = lines.split(newline);
-		String linesN = "";
+		StringBuilder linesN = new StringBuilder(lines.length() + linesA.length * (prefix.length() + newline.length()));
 		for(String line : linesA)
-			linesN += prefix + line + newline;
-		return linesN;
+			linesN.append(prefix).append(line).append(newline);
+		return linesN.toString();
 	}
 	/**
 	 * Splits at newline (defined by {@link #newline()}), prefixes and joins by newline.
@@ -389,23 +449,5 @@ public class StringUtils {
 	public static String newline(){
 		return String.format("%n");
 	}
-	
-	/**
-	 * Creates the argument list for {@link #each(String, Object...)}.
-	 * @param str the element
-	 * @param args the arguments
-	 * @return a {@link ArrayList} with the element as first element.
-	 */
-	private ArrayList<Object> createArgumentsList(String str, ArrayList<Object> args){
-		
-		// Create new List
-		ArrayList<Object> args_ = new ArrayList<>();
-		
-		// Add element and args
-		args_.add(str);
-		args_.addAll(args);
-		
-		// Return
-		return args_;
-	}
+
 }